@@ -6,18 +6,26 @@ import org.nhl.containing_backend.communication.messages.CreateMessage;
 import org.nhl.containing_backend.communication.messages.Message;
 import org.nhl.containing_backend.communication.messages.SpeedMessage;
 import org.nhl.containing_backend.models.Container;
+import org.nhl.containing_backend.models.DepartureIndex;
 import org.nhl.containing_backend.models.Model;
+import org.nhl.containing_backend.routing.Route;
+import org.nhl.containing_backend.routing.RouteCache;
+import org.nhl.containing_backend.routing.RouteTable;
+import org.nhl.containing_backend.routing.Router;
+import org.nhl.containing_backend.routing.StaticRouter;
+import org.nhl.containing_backend.routing.TerminalLayout;
+import org.nhl.containing_backend.routing.WaypointGraph;
+import org.nhl.containing_backend.simulation.SimulatedClient;
 import org.nhl.containing_backend.vehicles.Transporter;
+import org.nhl.containing_backend.vehicles.TransporterAssembler;
 import org.nhl.containing_backend.xml.Xml;
-import org.w3c.dom.Document;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import java.awt.*;
-import java.io.StringReader;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.nhl.containing_backend.communication.messages.CraneMessage;
 import org.nhl.containing_backend.communication.messages.DepartMessage;
 import org.nhl.containing_backend.communication.messages.MoveMessage;
@@ -32,9 +40,18 @@ public class Controller implements Runnable {
 
     public static final String ANSI_RESET = "\u001B[0m";
     public static final String ANSI_RED = "\u001B[31m";
+    /**
+     * Layouts with at most this many waypoints get a precomputed route table, larger ones a route cache.
+     */
+    private static final int ROUTE_TABLE_LIMIT = 512;
+    private static final int ROUTE_CACHE_SIZE = 4096;
+    /**
+     * Milliseconds between two rounds of periodic work when no events arrive.
+     */
+    private static final long TICK_INTERVAL = 50;
     private float speed;
     private boolean running;
-    private Server server;
+    private Connection server;
     private Date currentDate;
     private long lastTime;
     private long sumTime = Integer.MAX_VALUE;
@@ -42,60 +59,241 @@ public class Controller implements Runnable {
     private Calendar cal;
     private Database database;
     private Model model;
-    private List<Message> messagePool;
+    private TransporterAssembler transporterAssembler = new TransporterAssembler();
+    /**
+     * Transporters that are still being assembled, oldest batch first.
+     */
+    private final ArrayDeque<Future<List<Transporter>>> assemblies = new ArrayDeque<>();
+    private TerminalLayout layout;
+    private Router router;
+    private InFlightMessages messagePool;
     private List<Message> arriveMessagesList;
     private List<Message> craneMessageList;
     private List<Message> moveMessagesList;
-    private List<Container> containerListStorage;
     private List<Integer> tempCraneIDS;
+    private final LinkedBlockingQueue<ControllerEvent> events = new LinkedBlockingQueue<>();
+    private final Scheduler scheduler = new Scheduler();
+    private final AckDecoder ackDecoder = new AckDecoder();
+    /**
+     * Ids of the crane messages that put a container into storage.
+     */
+    private final Set<Integer> storeMessageIds = new HashSet<>();
 
     public Controller() {
+        this(new Server());
+    }
+
+    /**
+     * @param connection Connection to the simulator, e.g. a SimulatedClient to run without a viewer.
+     */
+    public Controller(Connection connection) {
         speed = 1;
-        server = new Server();
+        server = connection;
         model = new Model();
-        messagePool = new ArrayList<>();
+        messagePool = new InFlightMessages();
         arriveMessagesList = new ArrayList<>();
         moveMessagesList = new ArrayList<>();
-        containerListStorage = new ArrayList<>();
         tempCraneIDS = new ArrayList<>();
         craneMessageList = new ArrayList<>();
         database = new Database(model);
         running = false;
+        setLayout(TerminalLayout.terminal());
     }
 
     /**
      * Starts the controller and all the necessary initialisations.
+     * <p/>
+     * The controller thread waits for events from other threads and handles them as soon as they arrive. When no
+     * event arrives before the next tick, the periodic work of the simulation is done.
      */
     public void start() {
         model.getContainerPool().addAll(createContainersFromXmlResource());
+        listenToServer();
         startServer();
-        waitForServerConnection();
+        if (!server.awaitConnection()) {
+            return;
+        }
         initDate(); // Keep this as CLOSE to `while (running)` as possible.
         updateSpeed(speed);
         running = true;
+        long nextTick = System.currentTimeMillis();
         while (running) {
-            if (!server.isRunning()) {
-                return;
+            ControllerEvent event = null;
+            long wait = Math.min(nextTick - System.currentTimeMillis(), wallTimeUntil(scheduler.nextTime()));
+            if (wait > 0) {
+                try {
+                    event = events.poll(wait, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                    break;
+                }
             }
             updateDate();
+            scheduler.runDue(currentDate.getTime());
+
+            if (event != null) {
+                handleEvent(event);
+                continue;
+            }
+            if (System.currentTimeMillis() < nextTick) {
+                // Woken up for a scheduled action only.
+                continue;
+            }
 
             if (sumTime > 1000) {
                 spawnTransporters();
                 sumTime = 0;
             }
+            createAssembledTransporters(false);
             if (updateSpeedTime > 10000) {
                 updateSpeed(speed);
                 updateSpeedTime = 0;
             }
             assignTransportersToDepots();
+            nextTick = System.currentTimeMillis() + TICK_INTERVAL;
+        }
+        transporterAssembler.shutdown();
+    }
 
-            handleOkMessages();
+    /**
+     * Runs the simulation without a viewer, as fast as possible.
+     * <p/>
+     * Instead of following the wall clock, the simulation date jumps straight to
+     * the first thing that happens next: the arrival of a container, a scheduled
+     * action, or an ack of the simulated client.
+     * <p/>
+     * AGVs are only sent for containers their transporter still holds, so the
+     * number of messages grows with the number of containers and runs of weeks
+     * finish in seconds.
+     *
+     * @param duration Simulation time to run for, in milliseconds.
+     * @throws IllegalStateException If the controller is not connected to a
+     *                               SimulatedClient.
+     */
+    public void simulate(long duration) {
+        if (!(server instanceof SimulatedClient)) {
+            throw new IllegalStateException("A headless simulation needs a SimulatedClient");
+        }
+        SimulatedClient client = (SimulatedClient) server;
+        model.getContainerPool().addAll(createContainersFromXmlResource());
+        listenToServer();
+        server.run();
+        initDate();
+        long end = currentDate.getTime() + duration;
+        client.advanceTo(currentDate.getTime());
+        updateSpeed(speed);
+        running = true;
+        while (running) {
+            ControllerEvent event;
+            while ((event = events.poll()) != null) {
+                handleEvent(event);
+            }
+            scheduler.runDue(currentDate.getTime());
+            spawnTransporters();
+            // Simulated time does not pass while transporters are assembled.
+            createAssembledTransporters(true);
+            assignTransportersToDepots();
 
-            try {
-                Thread.sleep(50);
-            } catch (Throwable e) {
-                e.printStackTrace();
+            // Containers are released once the date has passed their arrival time.
+            long nextArrival = model.getContainerPool().nextArrivalTime();
+            long next = Math.min(nextArrival == Long.MAX_VALUE ? nextArrival : nextArrival + 1,
+                    Math.min(scheduler.nextTime(), client.nextAckTime()));
+            if (next > end) {
+                break;
+            }
+            if (next > currentDate.getTime()) {
+                setDate(next);
             }
+            client.advanceTo(currentDate.getTime());
+        }
+        running = false;
+        transporterAssembler.shutdown();
+    }
+
+    /**
+     * Runs an action on the controller thread after a delay, without blocking
+     * the controller in the meantime.
+     *
+     * @param delay  Milliseconds to wait at the current speed.
+     * @param action Action to run.
+     */
+    private void schedule(long delay, Runnable action) {
+        scheduler.schedule(currentDate.getTime() + (long) (delay * speed), action);
+    }
+
+    /**
+     * Sends a message to the simulator after a delay.
+     *
+     * @param delay   Milliseconds to wait at the current speed.
+     * @param message Message to send.
+     */
+    private void sendLater(long delay, final Message message) {
+        schedule(delay, new Runnable() {
+            @Override
+            public void run() {
+                messagePool.add(message, clock());
+                server.send(message);
+            }
+        });
+    }
+
+    /**
+     * Clock of the ack latencies. A headless simulation runs as fast as it can, so there the simulation time is used
+     * instead of the real time.
+     *
+     * @return Current time in nanoseconds.
+     */
+    private long clock() {
+        if (server instanceof SimulatedClient) {
+            return TimeUnit.MILLISECONDS.toNanos(currentDate.getTime());
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * @param time Simulation time in epoch milliseconds.
+     * @return Real milliseconds until the simulation reaches the provided time at the current speed.
+     */
+    private long wallTimeUntil(long time) {
+        if (time == Long.MAX_VALUE || speed <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return (long) Math.ceil((time - currentDate.getTime()) / (double) speed);
+    }
+
+    /**
+     * Handles a single event on the controller thread.
+     *
+     * @param event Event taken from the queue.
+     */
+    private void handleEvent(ControllerEvent event) {
+        switch (event.getType()) {
+            case ControllerEvent.MESSAGE:
+                try {
+                    handleOkMessage(event.getMessage());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                // An OK may have freed a transporter or depot, so act on it right away.
+                assignTransportersToDepots();
+                break;
+            case ControllerEvent.ACK:
+                try {
+                    handleOk(event.getId());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                assignTransportersToDepots();
+                break;
+            case ControllerEvent.SPEED:
+                speed = event.getSpeed();
+                updateSpeed(speed);
+                updateSpeedTime = 0;
+                break;
+            case ControllerEvent.STOP:
+            case ControllerEvent.DISCONNECTED:
+                running = false;
+                break;
         }
     }
 
@@ -105,12 +303,58 @@ public class Controller implements Runnable {
     public void stop() {
         server.stop();
         running = false;
+        events.add(ControllerEvent.stop());
+    }
+
+    /**
+     * Changes the speed of the simulation. May be called from any thread.
+     *
+     * @param speed Multiplier of the simulation time.
+     */
+    public void setSpeed(float speed) {
+        events.add(ControllerEvent.speed(speed));
+    }
+
+    /**
+     * Replaces the layout of the terminal, and the router with a static router for the new layout. Call before
+     * starting the controller.
+     *
+     * @param layout Layout of the terminal.
+     */
+    public void setLayout(TerminalLayout layout) {
+        this.layout = layout;
+        WaypointGraph graph = layout.getGraph();
+        if (graph.size() <= ROUTE_TABLE_LIMIT) {
+            router = new StaticRouter(new RouteTable(graph));
+        } else {
+            router = new RouteCache(graph, ROUTE_CACHE_SIZE);
+        }
+    }
+
+    public TerminalLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return Messages that have not been acknowledged yet, with the ack latencies of the acknowledged ones.
+     */
+    public InFlightMessages getInFlightMessages() {
+        return messagePool;
+    }
+
+    /**
+     * Replaces the router that finds the routes of the AGVs. Call before starting the controller.
+     *
+     * @param router Router to use, e.g. a ReservationRouter to keep concurrent AGVs apart.
+     */
+    public void setRouter(Router router) {
+        this.router = router;
     }
 
     public void updateSpeed(float speed) {
         SpeedMessage message = new SpeedMessage(speed, currentDate.toString());
-        messagePool.add(message);
-        server.writeMessage(message.generateXml());
+        messagePool.add(message, clock());
+        server.send(message);
     }
 
     /**
@@ -147,48 +391,53 @@ public class Controller implements Runnable {
     }
 
     /**
-     * Starts up the server in a separate thread.
+     * Sets the simulation date, for simulations that do not follow the wall clock.
+     *
+     * @param time Epoch milliseconds.
      */
-    private void startServer() {
-        Thread serverThread = new Thread(server);
-        serverThread.start();
+    private void setDate(long time) {
+        cal.setTimeInMillis(time);
+        currentDate = cal.getTime();
     }
 
     /**
-     * Halts the program until the server has connected to a client.
+     * Puts every message received from the server on the event queue.
      */
-    private void waitForServerConnection() {
-        while (true) {
-            if (server.isRunning()) {
-                return;
+    private void listenToServer() {
+        server.setMessageListener(new MessageListener() {
+            @Override
+            public void messageReceived(String message) {
+                events.add(ControllerEvent.message(message));
             }
-            try {
-                Thread.sleep(500);
-            } catch (Throwable e) {
-                e.printStackTrace();
+
+            @Override
+            public void ackReceived(int id) {
+                events.add(ControllerEvent.ack(id));
             }
-        }
+
+            @Override
+            public void disconnected() {
+                events.add(ControllerEvent.disconnected());
+            }
+        });
+    }
+
+    /**
+     * Starts up the server in a separate thread.
+     */
+    private void startServer() {
+        Thread serverThread = new Thread(server);
+        serverThread.start();
     }
 
     /**
      * Return a list of all containers described in the XML files.
+     * <p/>
+     * The files are parsed in parallel; the result is ordered by file, then by record.
      */
     private List<Container> createContainersFromXmlResource() {
-        List<Container> containers = new ArrayList<>();
-        try {
-            containers.addAll(Xml.parseContainerXml(Controller.class.getResourceAsStream("/xml1.xml")));
-            containers.addAll(Xml.parseContainerXml(Controller.class.getResourceAsStream("/xml2.xml")));
-            containers.addAll(Xml.parseContainerXml(Controller.class.getResourceAsStream("/xml3.xml")));
-            containers.addAll(Xml.parseContainerXml(Controller.class.getResourceAsStream("/xml4.xml")));
-            containers.addAll(Xml.parseContainerXml(Controller.class.getResourceAsStream("/xml5.xml")));
-            containers.addAll(Xml.parseContainerXml(Controller.class.getResourceAsStream("/xml6.xml")));
-            containers.addAll(Xml.parseContainerXml(Controller.class.getResourceAsStream("/xml7.xml")));
-            //containers.addAll(Xml.parseContainerXml(Controller.class.getResourceAsStream("/xml8.xml")));
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return containers;
+        return Xml.parseContainerXmlResources("/xml1.xml", "/xml2.xml", "/xml3.xml", "/xml4.xml", "/xml5.xml",
+                "/xml6.xml", "/xml7.xml"/*, "/xml8.xml"*/);
     }
 
     /**
@@ -196,23 +445,14 @@ public class Controller implements Runnable {
      * current date.
      */
     private List<Container> containersForCurrentDate() {
-        List<Container> result = new ArrayList<>();
-
-        Iterator<Container> i = model.getContainerPool().iterator();
-        while (i.hasNext()) {
-            Container container = i.next();
-            Date arrivalDate = container.getArrivalDate();
-            if (arrivalDate.before(currentDate)) {
-                result.add(container);
-                i.remove();
-            }
-        }
-
-        return result;
+        return model.getContainerPool().releaseBefore(currentDate.getTime());
     }
 
     /**
      * Spawns new transporters if the time is right.
+     * <p/>
+     * The containers are distributed over transporters in the background; the
+     * transporters are created by createAssembledTransporters once that is done.
      */
     private void spawnTransporters() {
         List<Container> containers = containersForCurrentDate();
@@ -221,137 +461,38 @@ public class Controller implements Runnable {
             return;
         }
 
-        List<Transporter> transporters = distributeContainers(containers);
-        model.getTransporters().addAll(transporters);
-
-        for (Transporter transporter : transporters) {
-            CreateMessage message = new CreateMessage(transporter);
-            messagePool.add(message);
-            transporter.setProcessingMessageId(message.getId());
-            server.writeMessage(message.generateXml());
-        }
+        assemblies.add(transporterAssembler.submit(containers));
     }
 
     /**
-     * Distributes the provided containers over a list of newly generated
-     * transporters.
-     * </p>
-     * WARNING: Method is butt-ugly.
+     * Creates the transporters of finished assemblies, in the order in which
+     * their containers arrived.
      *
-     * @param containers Containers that have to arrive in harbour.
-     * @return Transporters loaded with containers that are ready to arrive.
+     * @param wait Whether to wait for assemblies that are still running.
      */
-    private List<Transporter> distributeContainers(List<Container> containers) {
-        List<Container> lorryContainers = new ArrayList<>();
-        List<Container> trainContainers = new ArrayList<>();
-        List<Container> inlandshipContainers = new ArrayList<>();
-        List<Container> seashipContainers = new ArrayList<>();
-
-        String[] types = new String[]{"vrachtauto", "trein", "binnenschip", "zeeschip"};
-
-        // Create separate lists for all transporter types.
-        for (Container container : containers) {
-            if (container.getArrivalTransportType().equals(types[0])) {
-                lorryContainers.add(container);
-            } else if (container.getArrivalTransportType().equals(types[1])) {
-                trainContainers.add(container);
-            } else if (container.getArrivalTransportType().equals(types[2])) {
-                inlandshipContainers.add(container);
-            } else if (container.getArrivalTransportType().equals(types[3])) {
-                seashipContainers.add(container);
-            }
-        }
-
-        List<List<Container>> listOfLists = new ArrayList<>();
-        listOfLists.add(lorryContainers);
-        listOfLists.add(trainContainers);
-        listOfLists.add(inlandshipContainers);
-        listOfLists.add(seashipContainers);
-
-        List<Transporter> result = new ArrayList<>();
-
-        int counter = 0;
-
-        // Loop over all the lists.
-        for (List<Container> containers_ : listOfLists) {
-            String type = types[counter];
-
-            if (containers_.isEmpty()) {
-                counter++;
-                continue;
-            }
-
-            // Create a dictionary where a key is a (x, y, z) coordinate, and the value is a list of containers.
-            Map<String, List<Container>> dict = new HashMap<>();
-
-            // Distribute the containers over the dictionary.
-            for (Container container : containers_) {
-                String point = "";
-                point += container.getSpawnX() + ",";
-                point += container.getSpawnY() + ",";
-                point += container.getSpawnZ();
-
-                if (!dict.containsKey(point)) {
-                    List<Container> pointList = new ArrayList<>();
-                    pointList.add(container);
-                    dict.put(point, pointList);
-                } else {
-                    dict.get(point).add(container);
-                }
-            }
-
-            // Figure out the biggest list in the dictionary. This is also the amount of transporters.
-            int amountOfTransporters = 0;
-            for (List<Container> containerList : dict.values()) {
-                if (amountOfTransporters < containerList.size()) {
-                    amountOfTransporters = containerList.size();
-                }
-            }
-
-            // Figure out the boundaries of the transporters.
-            int limitX = 1;
-            int limitY = 1;
-            int limitZ = 1;
-            for (String point : dict.keySet()) {
-                String[] coords = point.split(",");
-                if (limitX < Integer.parseInt(coords[0]) + 1) {
-                    limitX = Integer.parseInt(coords[0]) + 1;
-                }
-                if (limitY < Integer.parseInt(coords[1]) + 1) {
-                    limitY = Integer.parseInt(coords[1]) + 1;
-                }
-                if (limitZ < Integer.parseInt(coords[2]) + 1) {
-                    limitZ = Integer.parseInt(coords[2]) + 1;
-                }
+    private void createAssembledTransporters(boolean wait) {
+        while (!assemblies.isEmpty() && (wait || assemblies.peek().isDone())) {
+            List<Transporter> transporters;
+            try {
+                transporters = assemblies.peek().get();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+                return;
+            } catch (ExecutionException e) {
+                // The containers of a batch that cannot be assembled never arrive.
+                e.printStackTrace();
+                transporters = Collections.emptyList();
             }
+            assemblies.poll();
+            model.getTransporters().addAll(transporters);
 
-            // For every transporter, fill it with containers and add it to the list.
-            for (int i = 0; i < amountOfTransporters; i++) {
-                Transporter transporter = new Transporter(type, limitX, limitY, limitZ);
-
-                Iterator iterator = dict.entrySet().iterator();
-                while (iterator.hasNext()) {
-                    Map.Entry<String, List<Container>> pair = (Map.Entry<String, List<Container>>) iterator.next();
-                    Point point = new Point(Integer.parseInt(pair.getKey().split(",")[0]),
-                            Integer.parseInt(pair.getKey().split(",")[1]));
-                    Container container = null;
-                    try {
-                        container = pair.getValue().remove(0);
-                    } catch (IndexOutOfBoundsException e) {
-                        iterator.remove();
-                        continue;
-                    }
-                    transporter.putContainer(point, container);
-                }
-                if (transporter.getContainers().size() > 0) {
-                    result.add(transporter);
-                }
+            for (Transporter transporter : transporters) {
+                CreateMessage message = new CreateMessage(transporter);
+                messagePool.add(message, clock());
+                transporter.setProcessingMessageId(message.getId());
+                server.send(message);
             }
-
-            counter++;
         }
-
-        return result;
     }
 
     /**
@@ -373,9 +514,9 @@ public class Controller implements Runnable {
                 ArriveMessage message = new ArriveMessage(transporter, spot);
                 //Database update
                 database.updateDatabaseTransporters(transporter);
-                messagePool.add(message);
+                messagePool.add(message, clock());
                 transporter.setProcessingMessageId(message.getId());
-                server.writeMessage(message.generateXml());
+                server.send(message);
             }
         }
     }
@@ -398,13 +539,16 @@ public class Controller implements Runnable {
         MoveMessage moveMessage = (MoveMessage) message;
         ArriveMessage arriveMessage = null;
         Iterator<Message> i = arriveMessagesList.iterator();
+        // Every message sent below waits for the time the simulator needs to finish the previous step.
+        long delay = 0;
         while (i.hasNext()) {
             arriveMessage = (ArriveMessage) i.next();
-            String dijkie;
+            Route route;
             Crane crane;
             crane = findCrane("vrachtauto", 1);
-            dijkie = getDijkstraPath(moveMessage.getAgv(), crane);
-            String firstChar = dijkie.substring(0);
+            route = getDijkstraPath(moveMessage.getAgv(), crane);
+            // Only a route that consists of a single waypoint selects a storage case below.
+            String firstChar = route.length() == 1 ? route.name(0) : "";
             boolean found = false;
             Crane craneTransporter;
             Transporter transporter;
@@ -422,159 +566,101 @@ public class Controller implements Runnable {
             }
 
 
-            try {
-                Thread.sleep(250);
-                int numberOfContainers;
-                switch (firstChar) {
-                    case "P": {
-                        //SchepenOpslag Trein kant
-                        numberOfContainers = arriveMessage.getTransporter().getContainers().size() - 1;
-                        craneTransporter = findAvailableCrane("StorageSchipNorth");
-                        transporter = null;
-                        agv = findAgv(arriveMessage);
-                        container = findContainer(containerListStorage);
-                        storage = model.getStorage();
-                        CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
-                        craneTransporter.setOccupied(true);
-                        database.updateDatabaseStorage(storage);
-                        craneMessageList.add(message);
-                        messagePool.add(craneMSG);
-                        agv.attachContainer(container);
-                        agv.setProcessingMessageId(craneMSG.getId());
-                        agv.setOccupied(true);
-                        server.writeMessage(craneMSG.generateXml());
-                        break;
-                    }
-                    case "Q": {
-                        //SchepenOpslag vrachtauto kant
-                        numberOfContainers = arriveMessage.getTransporter().getContainers().size() - 1;
-                        craneTransporter = findAvailableCrane("StorageSchipSouth");
-                        transporter = null;
-                        agv = findAgv(arriveMessage);
-                        container = findContainer(containerListStorage);
-                        storage = model.getStorage();
-                        CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
-                        craneTransporter.setOccupied(true);
-                        database.updateDatabaseStorage(storage);
-                        craneMessageList.add(message);
-                        messagePool.add(craneMSG);
-                        agv.attachContainer(container);
-                        agv.setProcessingMessageId(craneMSG.getId());
-                        agv.setOccupied(true);
-                        server.writeMessage(craneMSG.generateXml());
-                        break;
-                    }
-                    case "O": {
-                        //TreinOpslag Trein kant
-                        numberOfContainers = arriveMessage.getTransporter().getContainers().size() - 1;
-                        craneTransporter = findAvailableCrane("StorageTreinpNorth");
-                        transporter = null;
-                        agv = findAgv(arriveMessage);
-                        container = findContainer(containerListStorage);
-                        storage = model.getStorage();
-                        CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
-                        craneTransporter.setOccupied(true);
-                        database.updateDatabaseStorage(storage);
-                        craneMessageList.add(message);
-                        messagePool.add(craneMSG);
-                        agv.attachContainer(container);
-                        agv.setProcessingMessageId(craneMSG.getId());
-                        agv.setOccupied(true);
-                        server.writeMessage(craneMSG.generateXml());
-                        break;
-                    }
-                    case "N": {
-                        //TreinOpslag vrachtauto kant
-                        numberOfContainers = arriveMessage.getTransporter().getContainers().size() - 1;
-                        craneTransporter = findAvailableCrane("StorageTrainSouth");
-                        transporter = null;
-                        agv = findAgv(arriveMessage);
-                        container = findContainer(containerListStorage);
-                        storage = model.getStorage();
-                        CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
-                        craneTransporter.setOccupied(true);
-                        database.updateDatabaseStorage(storage);
-                        craneMessageList.add(message);
-                        messagePool.add(craneMSG);
-                        agv.attachContainer(container);
-                        agv.setProcessingMessageId(craneMSG.getId());
-                        agv.setOccupied(true);
-                        server.writeMessage(craneMSG.generateXml());
-                        break;
-                    }
-                    case "L": {
-                        //VrachtautoOpslag Trein kant
-                        numberOfContainers = arriveMessage.getTransporter().getContainers().size() - 1;
-                        craneTransporter = findAvailableCrane("StorageVrachtautoNorth");
-                        transporter = null;
-                        agv = findAgv(arriveMessage);
-                        container = findContainer(containerListStorage);
-                        storage = model.getStorage();
-                        CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
-                        craneTransporter.setOccupied(true);
-                        database.updateDatabaseStorage(storage);
-                        craneMessageList.add(message);
-                        messagePool.add(craneMSG);
-                        agv.attachContainer(container);
-                        agv.setProcessingMessageId(craneMSG.getId());
-                        agv.setOccupied(true);
-                        server.writeMessage(craneMSG.generateXml());
-                        break;
-                    }
-                    case "M": {
-                        //VrachtautoOpslag vrachtauto kant
-                        numberOfContainers = arriveMessage.getTransporter().getContainers().size() - 1;
-                        craneTransporter = findAvailableCrane("StorageVrachtautoSouth");
-                        transporter = null;
+            delay += 250;
+            int numberOfContainers;
+            switch (firstChar) {
+                case "P": {
+                    //SchepenOpslag Trein kant
+                    retrieveFromStorage("StorageSchipNorth", arriveMessage, message, delay);
+                    break;
+                }
+                case "Q": {
+                    //SchepenOpslag vrachtauto kant
+                    retrieveFromStorage("StorageSchipSouth", arriveMessage, message, delay);
+                    break;
+                }
+                case "O": {
+                    //TreinOpslag Trein kant
+                    retrieveFromStorage("StorageTreinpNorth", arriveMessage, message, delay);
+                    break;
+                }
+                case "N": {
+                    //TreinOpslag vrachtauto kant
+                    retrieveFromStorage("StorageTrainSouth", arriveMessage, message, delay);
+                    break;
+                }
+                case "L": {
+                    //VrachtautoOpslag Trein kant
+                    retrieveFromStorage("StorageVrachtautoNorth", arriveMessage, message, delay);
+                    break;
+                }
+                case "M": {
+                    //VrachtautoOpslag vrachtauto kant
+                    retrieveFromStorage("StorageVrachtautoSouth", arriveMessage, message, delay);
+                    break;
+                }
+                default: {
+                    numberOfContainers = arriveMessage.getTransporter().getContainers().size() - 1;
+                    container = arriveMessage.getTransporter().getContainers().get(numberOfContainers);
+                    craneTransporter = findCrane(arriveMessage.getTransporter().getType(), moveMessage.getEndLocationId());
+                    delay += 1000;
+                    if (craneTransporter != null) {
+                        found = true;
+                        transporter = arriveMessage.getTransporter();
                         agv = findAgv(arriveMessage);
-                        container = findContainer(containerListStorage);
-                        storage = model.getStorage();
+                        storage = null;
                         CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
                         craneTransporter.setOccupied(true);
-                        database.updateDatabaseStorage(storage);
+                        updateDatabase(craneTransporter);
                         craneMessageList.add(message);
-                        messagePool.add(craneMSG);
                         agv.attachContainer(container);
                         agv.setProcessingMessageId(craneMSG.getId());
                         agv.setOccupied(true);
-                        server.writeMessage(craneMSG.generateXml());
-                        break;
-                    }
-                    default: {
-                        numberOfContainers = arriveMessage.getTransporter().getContainers().size() - 1;
-                        container = arriveMessage.getTransporter().getContainers().get(numberOfContainers);
-                        craneTransporter = findCrane(arriveMessage.getTransporter().getType(), moveMessage.getEndLocationId());
-                        Thread.sleep(1000);
-                        if (craneTransporter != null) {
-                            found = true;
-                            transporter = arriveMessage.getTransporter();
-                            agv = findAgv(arriveMessage);
-                            storage = null;
-                            CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
-                            craneTransporter.setOccupied(true);
-                            updateDatabase(craneTransporter);
-                            craneMessageList.add(message);
-                            messagePool.add(craneMSG);
-                            agv.attachContainer(container);
-                            agv.setProcessingMessageId(craneMSG.getId());
-                            agv.setOccupied(true);
-                            server.writeMessage(craneMSG.generateXml());
-                            arriveMessage.getTransporter().getContainers().remove(numberOfContainers);
-
-                            //if (numberOfContainers <= 0) {
-                                i.remove();
-                            //}
-                        }
-                        break;
+                        sendLater(delay, craneMSG);
+                        arriveMessage.getTransporter().getContainers().remove(numberOfContainers);
+
+                        //if (numberOfContainers <= 0) {
+                            i.remove();
+                        //}
                     }
-                }
-                if (found) {
                     break;
                 }
-            } catch (InterruptedException ex) {
-                ex.printStackTrace();
             }
+            if (found) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Lets a storage crane put the first due container of its storage on the AGV of an arrived transporter. Nothing
+     * is sent when the crane is busy or no container is due, so the container stays in the index.
+     *
+     * @param storageCraneType Type of the storage crane, e.g. "StorageSchipNorth".
+     * @param arriveMessage    Arrive message of the transporter the AGV serves.
+     * @param message          Move message that brought the AGV to the storage.
+     * @param delay            Milliseconds to wait before the crane message is sent, at the current speed.
+     */
+    private void retrieveFromStorage(String storageCraneType, ArriveMessage arriveMessage, Message message,
+                                     long delay) {
+        Crane craneTransporter = findAvailableCrane(storageCraneType);
+        if (craneTransporter == null) {
+            return;
         }
+        Container container = findContainer(storageCraneType);
+        if (container == null) {
+            return;
+        }
+        Agv agv = findAgv(arriveMessage);
+        Storage storage = model.getStorage();
+        CraneMessage craneMSG = new CraneMessage(craneTransporter, null, agv, container, storage);
+        craneTransporter.setOccupied(true);
+        database.updateDatabaseStorage(storage);
+        craneMessageList.add(message);
+        agv.attachContainer(container);
+        agv.setProcessingMessageId(craneMSG.getId());
+        agv.setOccupied(true);
+        sendLater(delay, craneMSG);
     }
 
     /**
@@ -588,11 +674,12 @@ public class Controller implements Runnable {
         Iterator<Message> i = arriveMessagesList.iterator();
         while (i.hasNext()) {
             arriveMessage = (ArriveMessage) i.next();
-            String dijkie;
+            Route route;
             Crane crane;
             crane = findCrane("vrachtauto", 1);
-            dijkie = getDijkstraPath(moveMessage.getAgv(), crane);
-            String firstChar = dijkie.substring(0);
+            route = getDijkstraPath(moveMessage.getAgv(), crane);
+            // Only a route that consists of a single waypoint selects a storage case below.
+            String firstChar = route.length() == 1 ? route.name(0) : "";
 
             Crane craneTransporter;
             Transporter transporter;
@@ -608,11 +695,12 @@ public class Controller implements Runnable {
                     container = moveMessage.getAgv().getContainer();
                     storage = model.getStorage();
                     CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
+                    storeMessageIds.add(craneMSG.getId());
                     database.updateDatabaseStorage(storage);
-                    messagePool.add(craneMSG);
+                    messagePool.add(craneMSG, clock());
                     agv.setProcessingMessageId(craneMSG.getId());
                     agv.setOccupied(true);
-                    server.writeMessage(craneMSG.generateXml());
+                    server.send(craneMSG);
                     break;
                 }
                 case "Q": {
@@ -623,11 +711,12 @@ public class Controller implements Runnable {
                     container = moveMessage.getAgv().getContainer();
                     storage = model.getStorage();
                     CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
+                    storeMessageIds.add(craneMSG.getId());
                     database.updateDatabaseStorage(storage);
-                    messagePool.add(craneMSG);
+                    messagePool.add(craneMSG, clock());
                     agv.setProcessingMessageId(craneMSG.getId());
                     agv.setOccupied(true);
-                    server.writeMessage(craneMSG.generateXml());
+                    server.send(craneMSG);
                     break;
                 }
                 case "O": {
@@ -638,11 +727,12 @@ public class Controller implements Runnable {
                     container = moveMessage.getAgv().getContainer();
                     storage = model.getStorage();
                     CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
+                    storeMessageIds.add(craneMSG.getId());
                     database.updateDatabaseStorage(storage);
-                    messagePool.add(craneMSG);
+                    messagePool.add(craneMSG, clock());
                     agv.setProcessingMessageId(craneMSG.getId());
                     agv.setOccupied(true);
-                    server.writeMessage(craneMSG.generateXml());
+                    server.send(craneMSG);
                     break;
                 }
                 case "N": {
@@ -653,11 +743,12 @@ public class Controller implements Runnable {
                     container = moveMessage.getAgv().getContainer();
                     storage = model.getStorage();
                     CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
+                    storeMessageIds.add(craneMSG.getId());
                     database.updateDatabaseStorage(storage);
-                    messagePool.add(craneMSG);
+                    messagePool.add(craneMSG, clock());
                     agv.setProcessingMessageId(craneMSG.getId());
                     agv.setOccupied(true);
-                    server.writeMessage(craneMSG.generateXml());
+                    server.send(craneMSG);
                     break;
                 }
                 case "L": {
@@ -668,11 +759,12 @@ public class Controller implements Runnable {
                     container = moveMessage.getAgv().getContainer();
                     storage = model.getStorage();
                     CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
+                    storeMessageIds.add(craneMSG.getId());
                     database.updateDatabaseStorage(storage);
-                    messagePool.add(craneMSG);
+                    messagePool.add(craneMSG, clock());
                     agv.setProcessingMessageId(craneMSG.getId());
                     agv.setOccupied(true);
-                    server.writeMessage(craneMSG.generateXml());
+                    server.send(craneMSG);
                     break;
                 }
                 case "M": {
@@ -683,11 +775,12 @@ public class Controller implements Runnable {
                     container = moveMessage.getAgv().getContainer();
                     storage = model.getStorage();
                     CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
+                    storeMessageIds.add(craneMSG.getId());
                     database.updateDatabaseStorage(storage);
-                    messagePool.add(craneMSG);
+                    messagePool.add(craneMSG, clock());
                     agv.setProcessingMessageId(craneMSG.getId());
                     agv.setOccupied(true);
-                    server.writeMessage(craneMSG.generateXml());
+                    server.send(craneMSG);
                     break;
                 }
                 default: {
@@ -695,13 +788,18 @@ public class Controller implements Runnable {
                     transporter = arriveMessage.getTransporter();
                     agv = findAgv(message);
                     container = moveMessage.getAgv().getContainer();
+                    // Only hand over a container the transporter still holds, or the crane OK sends the AGV back
+                    // and forth forever.
+                    if (container == null || !transporter.getContainers().contains(container)) {
+                        break;
+                    }
                     storage = null;
                     CraneMessage craneMSG = new CraneMessage(craneTransporter, transporter, agv, container, storage);
                     updateDatabase(craneTransporter);
-                    messagePool.add(craneMSG);
+                    messagePool.add(craneMSG, clock());
                     agv.setProcessingMessageId(craneMSG.getId());
                     agv.setOccupied(true);
-                    server.writeMessage(craneMSG.generateXml());
+                    server.send(craneMSG);
                     break;
                 }
             }
@@ -793,6 +891,19 @@ public class Controller implements Runnable {
                     }
                 }
                 break;
+            case "StorageSchipNorth":
+            case "StorageSchipSouth":
+            case "StorageTreinpNorth":
+            case "StorageTrainSouth":
+            case "StorageVrachtautoNorth":
+            case "StorageVrachtautoSouth":
+                for (Crane crane : model.getStorageCrane()) {
+                    if (!crane.isOccupied()) {
+                        ret = crane;
+                        break;
+                    }
+                }
+                break;
         }
         if (ret == null) {
             System.out.println(ANSI_RED + "Unable to find available crane " + transporttype + ANSI_RESET);
@@ -871,26 +982,46 @@ public class Controller implements Runnable {
         return ret;
     }
 
-    private Container findContainer(List<Container> containers) {
-        Date firstDate = null;
-        Container ret = null;
-        for (Container container : containers) {
-            if (firstDate == null) {
-                firstDate = container.getDepartureDate();
-            } else if (firstDate.after(container.getDepartureDate())) {
-                firstDate = container.getDepartureDate();
+    /**
+     * Take the stored container that has to depart first by the transport a storage crane serves out of the storage
+     * index. Only containers whose departure time has passed are taken.
+     *
+     * @param storageCraneType Type of the storage crane, e.g. "StorageTreinpNorth".
+     * @return The first departing container, or null if none is due.
+     */
+    private Container findContainer(String storageCraneType) {
+        DepartureIndex index = model.getDepartureIndex();
+        long now = currentDate.getTime();
+        // A ship storage serves both sea and inland ships; take from the type that departs first.
+        String dueType = null;
+        long dueTime = Long.MAX_VALUE;
+        for (String transportType : departureTypesOf(storageCraneType)) {
+            List<Container> next = index.nextDepartures(transportType, now, 1);
+            if (!next.isEmpty() && next.get(0).getDepartureTime() < dueTime) {
+                dueType = transportType;
+                dueTime = next.get(0).getDepartureTime();
             }
         }
-        for (Container container : containers) {
-            if (container.getDepartureDate().equals(firstDate)) {
-                ret = container;
-                break;
-            }
+        if (dueType == null) {
+            System.out.println(ANSI_RED + "Unable to find available container" + ANSI_RESET);
+            return null;
         }
-        if (ret == null) {
-            System.out.println(ANSI_RED + "Unable to find available container with date " + firstDate + ANSI_RESET);
+        return index.pollDepartures(dueType, now, 1).get(0);
+    }
+
+    /**
+     * @param storageCraneType Type of a storage crane, e.g. "StorageSchipNorth".
+     * @return Departure transport types of the containers in the storage the crane serves.
+     */
+    private static String[] departureTypesOf(String storageCraneType) {
+        if (storageCraneType.startsWith("StorageSchip")) {
+            return new String[]{"zeeschip", "binnenschip"};
+        } else if (storageCraneType.startsWith("StorageTrein") || storageCraneType.startsWith("StorageTrain")) {
+            return new String[]{"trein"};
+        } else if (storageCraneType.startsWith("StorageVrachtauto")) {
+            return new String[]{"vrachtauto"};
         }
-        return ret;
+        return new String[0];
     }
 
     private Container findContainerByNumber(List<Container> containers, int containerNumber) {
@@ -916,9 +1047,9 @@ public class Controller implements Runnable {
         CraneMessage craneMessage = (CraneMessage) message;
         if (craneMessage.getTransporter().getContainers().isEmpty()) {
             DepartMessage departMessage = new DepartMessage(craneMessage.getTransporter());
-            messagePool.add(departMessage);
+            messagePool.add(departMessage, clock());
             craneMessage.getTransporter().setProcessingMessageId(departMessage.getId());
-            server.writeMessage(departMessage.generateXml());
+            server.send(departMessage);
         }
 
     }
@@ -927,33 +1058,29 @@ public class Controller implements Runnable {
      * AGV To Transporter
      *
      * @param message
+     * @param delay   Milliseconds to wait before the AGV is sent off, at the current speed.
      */
-    private void moveAgvArrive(Message message) {
+    private void moveAgvArrive(Message message, long delay) {
         if (message.getMessageType() == Message.ARRIVE) {
             ArriveMessage arrivedMessage = (ArriveMessage) message;
-            String dijkstra;
+            Route route;
             Crane crane;
 
             for (Agv agv : model.getAgvs()) {
-                if (!agv.isOccupied()) {
+                // An AGV that still carries a container cannot pick up another one.
+                if (!agv.isOccupied() && agv.getContainer() == null) {
 
                     crane = findAvailableCrane(arrivedMessage.getTransporter().getType());
 
-                    dijkstra = getDijkstraPath(agv, crane);
+                    route = getDijkstraPath(agv, crane);
                     agv.setOccupied(true);
                     crane.setOccupied(true);
                     tempCraneIDS.add(crane.getId());
-                    try {
-                        Thread.sleep(1000);
-                        MoveMessage moveMessage = new MoveMessage(agv, dijkstra, crane);
-                        messagePool.add(moveMessage);
-                        agv.setProcessingMessageId(moveMessage.getId());
-                        agv.setLocationType(arrivedMessage.getTransporter().getType());
-                        server.writeMessage(moveMessage.generateXml());
-                        break;
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
+                    MoveMessage moveMessage = new MoveMessage(agv, route, crane);
+                    agv.setProcessingMessageId(moveMessage.getId());
+                    agv.setLocationType(arrivedMessage.getTransporter().getType());
+                    sendLater(delay + 1000, moveMessage);
+                    break;
                 }
             }
         }
@@ -966,7 +1093,7 @@ public class Controller implements Runnable {
      */
     private void moveAgvCrane(Message message) {
         if (message.getMessageType() == Message.CRANE) {
-            String dijkstra;
+            Route route;
             Crane crane;
 
             for (Message getMessage : moveMessagesList) {
@@ -990,15 +1117,15 @@ public class Controller implements Runnable {
 
                     crane = findstoragecrane(moveToStorage.getAgv().getContainer().getDepartureTransportType());
 
-                    dijkstra = getDijkstraPath(moveToStorage.getAgv(), crane);
+                    route = getDijkstraPath(moveToStorage.getAgv(), crane);
                     moveToStorage.getAgv().setOccupied(true);
 
                     try {
-                        MoveMessage moveCreateMessage = new MoveMessage(moveToStorage.getAgv(), dijkstra, crane);
+                        MoveMessage moveCreateMessage = new MoveMessage(moveToStorage.getAgv(), route, crane);
 
-                        messagePool.add(moveCreateMessage);
+                        messagePool.add(moveCreateMessage, clock());
                         moveToStorage.getAgv().setProcessingMessageId(moveCreateMessage.getId());
-                        server.writeMessage(moveCreateMessage.generateXml());
+                        server.send(moveCreateMessage);
                         break;
                     } catch (Exception e) {
                     }
@@ -1007,56 +1134,26 @@ public class Controller implements Runnable {
         }
     }
 
-    public String getDijkstraPath(Agv agv, Crane crane) {
-        Dijkstra dijkstra = new Dijkstra();
+    /**
+     * Find the route an AGV has to drive to reach a crane.
+     *
+     * @param agv   AGV that has to move.
+     * @param crane Crane the AGV has to reach.
+     * @return Shortest route, or Route.NONE if there is no crane or no known route.
+     */
+    public Route getDijkstraPath(Agv agv, Crane crane) {
         String beginPoint = "";
         String endPoint = "";
-        String dijkie = "";
-        float east = -122f;
-        float west = 113f;
+        Route route = Route.NONE;
         if (agv.getContainer() == null) {
-            //western ship platform -> goto waypoint P
-            if (agv.getX() < 12 && agv.getY() == east) {
-                beginPoint = "P";
-            } //eastern ship platform -> goto waypoint Q
-            else if (agv.getX() < 12 && agv.getY() == west) {
-                beginPoint = "Q";
-            }//western train platform -> goto waypoint O
-            else if (agv.getX() > 110f && agv.getX() < 300 && agv.getY() == west) {
-                beginPoint = "O";
-            } //eastern train platform -> goto waypoint N
-            else if (agv.getX() < 110f && agv.getX() < 300 && agv.getY() == east) {
-                beginPoint = "N";
-            } //western lorry platform -> goto waypoint L
-            else if (agv.getX() > 365f && agv.getX() < 550 && agv.getY() == west) {
-                beginPoint = "L";
-            } else if (agv.getX() > 365f && agv.getX() < 550 && agv.getY() == east) {
-                beginPoint = "M";
-            }
-        } else if (agv.getContainer().getArrivalTransportType().equals("trein")) {
-            beginPoint = "G";
-        } else if (agv.getContainer().getArrivalTransportType().equals("vrachtauto")) {
-            beginPoint = "B";
-        } else if (agv.getContainer().getArrivalTransportType().equals("binnenschip")) {
-            beginPoint = "N";
-        } else if (agv.getContainer().getArrivalTransportType().equals("zeeschip")) {
-            beginPoint = "K";
+            // An empty AGV starts from the waypoint of the parking platform it is on.
+            beginPoint = layout.parkingWaypoint(agv.getX(), agv.getY());
+        } else {
+            beginPoint = layout.transportWaypoint(agv.getContainer().getArrivalTransportType());
         }
         //only call move method when there's a valid waypoint in the char[] to avoid exception
         if (crane != null) {
             switch (crane.getType()) {
-                case "DockingCraneInlandShip":
-                    endPoint = "K";
-                    break;
-                case "DockingCraneSeaShip":
-                    endPoint = "J";
-                    break;
-                case "TrainCrane":
-                    endPoint = "I";
-                    break;
-                case "TruckCrane":
-                    endPoint = "D";
-                    break;
                 case "StorageCrane":
                     if (agv.getContainer().getDepartureTransportType().equals("vrachtauto")) {
                         if (beginPoint.equals("G")) {
@@ -1084,63 +1181,36 @@ public class Controller implements Runnable {
                         }
                     }
                     break;
+                default:
+                    endPoint = layout.craneWaypoint(crane.getType());
+                    break;
             }
-            dijkie = dijkstra.shortestPath(beginPoint, endPoint);
-            dijkie = dijkie.replace("[[", "");
-            dijkie = dijkie.replace("]]", "");
+            route = router.route(agv.getId(), beginPoint, endPoint, currentDate.getTime());
         }
-        return dijkie;
+        return route;
     }
 
     /**
-     * Processes all received OK messages. Removes them from the pool and sets
-     * the message processors to -1.
+     * Processes a received OK message. Removes the message it acknowledges from
+     * the pool and sets the message processors to -1.
+     *
+     * @param xmlMessage Received XML message.
      */
-    private void handleOkMessages() {
-        List<String> xmlMessages = new ArrayList<>();
-        while (true) {
-            String xmlMessage = server.getMessage();
-            if (xmlMessage == null) {
-                break;
-            }
-            xmlMessages.add(xmlMessage);
-        }
-
-        for (String message : xmlMessages) {
-            try {
-                handleOkMessage(message);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-    }
-
     private void handleOkMessage(String xmlMessage) throws Exception {
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        DocumentBuilder db = dbf.newDocumentBuilder();
-        InputSource source = new InputSource();
-        source.setCharacterStream(new StringReader(xmlMessage));
-
-        Document doc = db.parse(source);
-
-        NodeList nodes = doc.getElementsByTagName("id");
-        if (nodes.getLength() != 1) {
+        if (!ackDecoder.decode(xmlMessage)) {
             throw new Exception(xmlMessage + " is not a valid message");
         }
+        handleOk(ackDecoder.getId());
+    }
 
-        int id = Integer.parseInt(nodes.item(0).getTextContent());
-
-        Message message = null;
-        boolean nobreak = true;
-
-        for (Message message_ : messagePool) {
-            if (message_.getId() == id) {
-                message = message_;
-                nobreak = false;
-                break;
-            }
-        }
-        if (nobreak) {
+    /**
+     * Handles the OK of a message. Removes the message from the pool and sets the message processors to -1.
+     *
+     * @param id Id of the acknowledged message.
+     */
+    private void handleOk(int id) throws Exception {
+        Message message = messagePool.remove(id, clock());
+        if (message == null) {
             throw new Exception(id + " doesn't exist");
         }
 
@@ -1152,12 +1222,12 @@ public class Controller implements Runnable {
                 arriveMessagesList.add(message);
                 ArriveMessage arriveMessage = (ArriveMessage) message;
                 if (!arriveMessage.getTransporter().getType().equals("vrachtauto")) {
+                    // One AGV per container, each sent off 1.5 seconds after the previous one.
                     for (int i = 0; i < arriveMessage.getTransporter().getContainers().size(); i++) {
-                        Thread.sleep(500);
-                        moveAgvArrive(message);
+                        moveAgvArrive(message, i * 1500L + 500);
                     }
                 } else {
-                    moveAgvArrive(message);
+                    moveAgvArrive(message, 0);
                 }
 
 
@@ -1173,13 +1243,20 @@ public class Controller implements Runnable {
                 handleOkSpeedMessage((SpeedMessage) message);
                 break;
             case Message.CRANE:
-                handleOkCraneMessage((CraneMessage) message);
-                for (Message removeArrive : arriveMessagesList) {
-                    ArriveMessage arrivedMessage = (ArriveMessage) removeArrive;
-                    if (arrivedMessage.getTransporter().getProcessingMessageId() == 1) {
-                        handleOkArriveMessage(arrivedMessage);
+                // The crane needs a second to finish before it is released.
+                final CraneMessage craneMessage = (CraneMessage) message;
+                schedule(1000, new Runnable() {
+                    @Override
+                    public void run() {
+                        handleOkCraneMessage(craneMessage);
+                        for (Message removeArrive : arriveMessagesList) {
+                            ArriveMessage arrivedMessage = (ArriveMessage) removeArrive;
+                            if (arrivedMessage.getTransporter().getProcessingMessageId() == 1) {
+                                handleOkArriveMessage(arrivedMessage);
+                            }
+                        }
                     }
-                }
+                });
                 break;
             case Message.MOVE:
                 MoveMessage moveMsg = (MoveMessage) message;
@@ -1192,9 +1269,6 @@ public class Controller implements Runnable {
                 handleOkDepartMessage((DepartMessage) message);
                 break;
         }
-        messagePool.remove(message);
-
-
     }
 
     private void handleOkCreateMessage(CreateMessage message) {
@@ -1213,8 +1287,11 @@ public class Controller implements Runnable {
     }
 
     private void handleOkCraneMessage(CraneMessage message) {
+        // The container is only in storage once the crane has put it there.
+        if (storeMessageIds.remove(message.getId())) {
+            model.getDepartureIndex().add(message.getContainer());
+        }
         try {
-            Thread.sleep(1000);
             message.getCrane().setProcessingMessageId(-1);
             message.getCrane().setOccupied(false);
 
@@ -1228,7 +1305,10 @@ public class Controller implements Runnable {
             CraneMessage craneMessage = (CraneMessage) message;
             craneMessage.getCrane().setOccupied(false);
             craneMessage.getAgv().setOccupied(false);
-            moveAgvCrane(message);
+            // A container the transporter no longer held has not been unloaded, so there is nothing to store.
+            if (con != null) {
+                moveAgvCrane(message);
+            }
             departTransporter(message);
         } catch (Exception e) {
         }
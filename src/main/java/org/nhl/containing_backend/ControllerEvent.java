@@ -0,0 +1,82 @@
+package org.nhl.containing_backend;
+
+/**
+ * Something the controller loop has to react to.
+ * <p/>
+ * Events are put on the queue of the controller by other threads. Between events the controller thread is parked;
+ * the periodic work of the simulation runs whenever waiting for the next event times out.
+ */
+public class ControllerEvent {
+
+    /**
+     * A message from the simulator, usually an OK for one of our messages.
+     */
+    public static final int MESSAGE = 1;
+    /**
+     * A request to change the speed of the simulation.
+     */
+    public static final int SPEED = 2;
+    /**
+     * A request to stop the controller.
+     */
+    public static final int STOP = 3;
+    /**
+     * The simulator disconnected.
+     */
+    public static final int DISCONNECTED = 4;
+    /**
+     * An OK for one of our messages, already decoded by the binary protocol.
+     */
+    public static final int ACK = 5;
+
+    private final int type;
+    private final String message;
+    private final float speed;
+    private final int id;
+
+    private ControllerEvent(int type, String message, float speed, int id) {
+        this.type = type;
+        this.message = message;
+        this.speed = speed;
+        this.id = id;
+    }
+
+    public static ControllerEvent message(String message) {
+        return new ControllerEvent(MESSAGE, message, 0, 0);
+    }
+
+    public static ControllerEvent ack(int id) {
+        return new ControllerEvent(ACK, null, 0, id);
+    }
+
+    public static ControllerEvent speed(float speed) {
+        return new ControllerEvent(SPEED, null, speed, 0);
+    }
+
+    public static ControllerEvent stop() {
+        return new ControllerEvent(STOP, null, 0, 0);
+    }
+
+    public static ControllerEvent disconnected() {
+        return new ControllerEvent(DISCONNECTED, null, 0, 0);
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    /**
+     * @return Id of the acknowledged message of an ACK event.
+     */
+    public int getId() {
+        return id;
+    }
+}
@@ -9,6 +9,7 @@ import es.usc.citius.hipster.model.problem.SearchProblem;
 import es.usc.citius.hipster.util.graph.GraphBuilder;
 import es.usc.citius.hipster.util.graph.GraphSearchProblem;
 import es.usc.citius.hipster.util.graph.HipsterDirectedGraph;
+import org.nhl.containing_backend.routing.WaypointGraph;
 
 /**
  *
@@ -25,46 +26,23 @@ public class Dijkstra {
      */
     //Create a simple weighted directed graph with Hipster where
     // vertices are Strings and edge values are just doubles
-    HipsterDirectedGraph<String, Double> graph = GraphBuilder.create()
-            .connect("A").to("L").withEdge(125d)
-            .connect("L").to("A").withEdge(125d)
-            .connect("A").to("B").withEdge(275d)
-            .connect("B").to("A").withEdge(275d)
-            .connect("L").to("C").withEdge(125d)
-            .connect("C").to("L").withEdge(125d)
-            .connect("C").to("D").withEdge(275d)
-            .connect("D").to("C").withEdge(275d)
-            .connect("C").to("O").withEdge(130d)
-            .connect("O").to("C").withEdge(130d)
-            .connect("O").to("E").withEdge(125d)
-            .connect("E").to("O").withEdge(125d)
-            .connect("E").to("F").withEdge(275d)
-            .connect("F").to("E").withEdge(275d)
-            .connect("E").to("I").withEdge(50d)
-            .connect("I").to("E").withEdge(50d)
-            .connect("E").to("P").withEdge(140d)
-            .connect("P").to("E").withEdge(140d)
-            .connect("P").to("G").withEdge(140d)
-            .connect("G").to("P").withEdge(140d)
-            .connect("G").to("H").withEdge(275d)
-            .connect("H").to("G").withEdge(275d)
-            .connect("G").to("J").withEdge(50d)
-            .connect("J").to("G").withEdge(50d)
-            .connect("B").to("M").withEdge(125d)
-            .connect("M").to("B").withEdge(125d)
-            .connect("M").to("D").withEdge(125d)
-            .connect("D").to("M").withEdge(125d)
-            .connect("D").to("N").withEdge(130d)
-            .connect("N").to("D").withEdge(130d)
-            .connect("N").to("F").withEdge(130d)
-            .connect("F").to("N").withEdge(130d)
-            .connect("F").to("Q").withEdge(140d)
-            .connect("Q").to("F").withEdge(140d)
-            .connect("Q").to("H").withEdge(140d)
-            .connect("H").to("Q").withEdge(140d)
-            .connect("H").to("K").withEdge(50d)
-            .connect("K").to("H").withEdge(50d)
-            .buildDirectedGraph();
+    HipsterDirectedGraph<String, Double> graph = buildGraph(WaypointGraph.terminal());
+
+    /**
+     * Copies the edges of a waypoint graph into a Hipster graph.
+     *
+     * @param waypoints Graph of waypoints.
+     * @return Hipster graph with the same edges.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static HipsterDirectedGraph<String, Double> buildGraph(WaypointGraph waypoints) {
+        GraphBuilder builder = GraphBuilder.create();
+        for (WaypointGraph.Edge edge : waypoints.getEdges()) {
+            builder.connect(waypoints.nameOf(edge.getFrom())).to(waypoints.nameOf(edge.getTo()))
+                    .withEdge(edge.getCost());
+        }
+        return builder.buildDirectedGraph();
+    }
 
     public String shortestPath(String beginPoint, String endPoint) {
 
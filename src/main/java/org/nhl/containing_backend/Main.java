@@ -1,5 +1,14 @@
 package org.nhl.containing_backend;
 
+import org.nhl.containing_backend.communication.InFlightMessages;
+import org.nhl.containing_backend.communication.SelectorServer;
+import org.nhl.containing_backend.communication.messages.Message;
+import org.nhl.containing_backend.routing.ReservationRouter;
+import org.nhl.containing_backend.routing.TerminalLayout;
+import org.nhl.containing_backend.simulation.SimulatedClient;
+import org.nhl.containing_backend.xml.Xml;
+
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -7,8 +16,66 @@ import java.io.IOException;
  */
 public class Main {
 
+    /**
+     * Amount of days a headless simulation runs for when no amount is given.
+     */
+    private static final int DEFAULT_HEADLESS_DAYS = 31;
+
     public static void main(String[] args) throws IOException {
-        Controller controller = new Controller();
-        controller.start();
+        File layout = null;
+        boolean reservationRouting = false;
+        boolean multiClient = false;
+        int headlessDays = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--layout=")) {
+                layout = new File(arg.substring("--layout=".length()));
+            } else if (arg.equals("--reservation-routing")) {
+                reservationRouting = true;
+            } else if (arg.equals("--multi-client")) {
+                multiClient = true;
+            } else if (arg.equals("--headless")) {
+                headlessDays = DEFAULT_HEADLESS_DAYS;
+            } else if (arg.startsWith("--headless=")) {
+                headlessDays = Integer.parseInt(arg.substring("--headless=".length()));
+            } else if (arg.equals("--cache")) {
+                Xml.setCacheDirectory(Xml.DEFAULT_CACHE_DIRECTORY);
+            } else if (arg.startsWith("--cache=")) {
+                Xml.setCacheDirectory(new File(arg.substring("--cache=".length())));
+            }
+        }
+
+        SimulatedClient client = headlessDays > 0 ? new SimulatedClient() : null;
+        Controller controller;
+        if (client != null) {
+            controller = new Controller(client);
+        } else if (multiClient) {
+            controller = new Controller(new SelectorServer());
+        } else {
+            controller = new Controller();
+        }
+        if (layout != null) {
+            controller.setLayout(TerminalLayout.load(layout));
+        }
+        if (reservationRouting) {
+            controller.setRouter(new ReservationRouter(controller.getLayout().getGraph()));
+        }
+        if (client == null) {
+            controller.start();
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        controller.simulate(headlessDays * 24L * 60 * 60 * 1000);
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("Simulated " + headlessDays + " days in " + elapsed + " ms: "
+                + client.getMessageCount() + " messages sent, " + client.getAckCount() + " acks received.");
+        InFlightMessages messages = controller.getInFlightMessages();
+        String[] types = {"Create", "Arrive", "Speed", "Crane", "Move", "Depart"};
+        // Without a viewer the latencies are measured on the simulation clock.
+        for (int type = Message.CREATE; type <= Message.DEPART; type++) {
+            System.out.println(types[type - 1] + ": " + messages.getAckCount(type) + " acks, mean simulated latency "
+                    + messages.getMeanLatency(type) / 1000000 + " ms, max "
+                    + messages.getMaxLatency(type) / 1000000 + " ms");
+        }
     }
 }
@@ -0,0 +1,79 @@
+package org.nhl.containing_backend;
+
+import java.util.PriorityQueue;
+
+/**
+ * Actions that have to be run at a later simulation time.
+ * <p/>
+ * The scheduler does not own a thread: the controller runs the actions that are due from its own loop, so actions can
+ * touch the model without synchronisation. Actions with equal times run in the order in which they were scheduled.
+ */
+public class Scheduler {
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private long sequence;
+
+    /**
+     * Schedule an action.
+     *
+     * @param time   Simulation time in epoch milliseconds at which the action is due.
+     * @param action Action to run.
+     */
+    public void schedule(long time, Runnable action) {
+        queue.add(new Entry(time, sequence++, action));
+    }
+
+    /**
+     * Run all actions that are due, including actions that are scheduled by those actions and are due as well. An
+     * action that throws is reported and does not stop the others.
+     *
+     * @param now Current simulation time in epoch milliseconds.
+     * @return Amount of actions that were run.
+     */
+    public int runDue(long now) {
+        int count = 0;
+        while (!queue.isEmpty() && queue.peek().time <= now) {
+            Entry entry = queue.poll();
+            count++;
+            try {
+                entry.action.run();
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Simulation time of the first action, or Long.MAX_VALUE if nothing is scheduled.
+     */
+    public long nextTime() {
+        return queue.isEmpty() ? Long.MAX_VALUE : queue.peek().time;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    private static class Entry implements Comparable<Entry> {
+
+        private final long time;
+        private final long sequence;
+        private final Runnable action;
+
+        Entry(long time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return time != other.time ? Long.compare(time, other.time) : Long.compare(sequence, other.sequence);
+        }
+    }
+}
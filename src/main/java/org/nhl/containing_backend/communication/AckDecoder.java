@@ -0,0 +1,128 @@
+package org.nhl.containing_backend.communication;
+
+/**
+ * Reads the id and type of an ack of the XML line protocol, e.g.
+ * "&lt;Simulation&gt;&lt;id&gt;5&lt;/id&gt;&lt;OK/&gt;&lt;/Simulation&gt;".
+ * <p/>
+ * The ack is scanned once from left to right without building a document. The decoder only remembers where the
+ * type is, so decoding allocates nothing; a decoder is meant to be reused by a single thread.
+ */
+public class AckDecoder {
+
+    private CharSequence xml;
+    private int id;
+    private int typeStart;
+    private int typeEnd;
+
+    /**
+     * Decodes an ack.
+     *
+     * @param xml Received line.
+     * @return Whether the line holds exactly one id element with a number in it.
+     */
+    public boolean decode(CharSequence xml) {
+        this.xml = xml;
+        typeStart = -1;
+        typeEnd = -1;
+        boolean found = false;
+        int length = xml.length();
+        int i = 0;
+        while (i < length) {
+            if (xml.charAt(i) != '<') {
+                i++;
+                continue;
+            }
+            if (matches(xml, i + 1, "id>")) {
+                if (found) {
+                    return false;
+                }
+                found = true;
+                i = readId(xml, i + "<id>".length());
+                if (i == -1) {
+                    return false;
+                }
+                continue;
+            }
+            if (found && typeStart == -1 && i + 1 < length && xml.charAt(i + 1) != '/') {
+                typeStart = i + 1;
+                typeEnd = typeStart;
+                while (typeEnd < length && isNameChar(xml.charAt(typeEnd))) {
+                    typeEnd++;
+                }
+            }
+            i++;
+        }
+        return found;
+    }
+
+    /**
+     * @return Id of the acknowledged message. Only valid after decode() returned true.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return Name of the first element after the id, e.g. "OK", or null if there is none.
+     */
+    public String getType() {
+        return typeStart == -1 ? null : xml.subSequence(typeStart, typeEnd).toString();
+    }
+
+    /**
+     * Checks the type without creating a string.
+     *
+     * @param type Element name, e.g. "OK".
+     * @return Whether the first element after the id has the provided name.
+     */
+    public boolean isType(String type) {
+        if (typeStart == -1 || typeEnd - typeStart != type.length()) {
+            return false;
+        }
+        for (int i = 0; i < type.length(); i++) {
+            if (xml.charAt(typeStart + i) != type.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the number of an id element and its closing tag.
+     *
+     * @param start Position right after "&lt;id&gt;".
+     * @return Position after "&lt;/id&gt;", or -1 if the element does not hold a valid int.
+     */
+    private int readId(CharSequence xml, int start) {
+        long value = 0;
+        int i = start;
+        while (i < xml.length() && xml.charAt(i) >= '0' && xml.charAt(i) <= '9') {
+            value = value * 10 + (xml.charAt(i) - '0');
+            if (value > Integer.MAX_VALUE) {
+                return -1;
+            }
+            i++;
+        }
+        if (i == start || !matches(xml, i, "</id>")) {
+            return -1;
+        }
+        id = (int) value;
+        return i + "</id>".length();
+    }
+
+    private static boolean matches(CharSequence xml, int start, String expected) {
+        if (start + expected.length() > xml.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (xml.charAt(start + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNameChar(char c) {
+        return c != '>' && c != '/' && !Character.isWhitespace(c);
+    }
+}
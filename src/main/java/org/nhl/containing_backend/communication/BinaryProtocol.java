@@ -0,0 +1,231 @@
+package org.nhl.containing_backend.communication;
+
+import org.nhl.containing_backend.communication.messages.ArriveMessage;
+import org.nhl.containing_backend.communication.messages.CraneMessage;
+import org.nhl.containing_backend.communication.messages.CreateMessage;
+import org.nhl.containing_backend.communication.messages.DepartMessage;
+import org.nhl.containing_backend.communication.messages.Message;
+import org.nhl.containing_backend.communication.messages.MoveMessage;
+import org.nhl.containing_backend.communication.messages.SpeedMessage;
+import org.nhl.containing_backend.models.Container;
+import org.nhl.containing_backend.routing.Route;
+import org.nhl.containing_backend.vehicles.Transporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Length-prefixed binary alternative to the XML line protocol.
+ * <p/>
+ * A client asks for the binary protocol by sending HANDSHAKE right after connecting; the server confirms by sending
+ * HANDSHAKE back. Clients that send nothing keep talking XML. After the handshake every message is a frame
+ * (big-endian, strings as in DataOutput.writeUTF):
+ * <pre>
+ * int     length of the rest of the frame
+ * byte    message type, see Message
+ * int     message id
+ * fields of the message type
+ * </pre>
+ * Fields per message type:
+ * <pre>
+ * CREATE  utf transporter type, int transporter id, short owner count, utf owners,
+ *         int container count, containers (int number, short owner index, short x, short y, short z,
+ *         long departure time)
+ * ARRIVE  int transporter id, int depot index
+ * SPEED   float speed, utf date
+ * CRANE   utf crane type, int crane id, utf transporter type, int transporter id, byte storage, int agv id,
+ *         int container number
+ * MOVE    int agv id, float x, float y, short waypoint count, utf waypoints, utf end location type,
+ *         int end location id
+ * DEPART  int transporter id
+ * </pre>
+ * The client acknowledges a message with a frame of type ACK that only holds the id of the message. A crane message
+ * without transporter is written with an empty transporter type and id -1.
+ */
+public final class BinaryProtocol {
+
+    /**
+     * "CNTB" followed by the protocol version.
+     */
+    public static final byte[] HANDSHAKE = {'C', 'N', 'T', 'B', 1};
+    /**
+     * Type of the frame that acknowledges a message.
+     */
+    public static final byte ACK = 0;
+    private static final int ACK_LENGTH = 1 + 4;
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Encodes a message as a frame.
+     *
+     * @param message Message of one of the types in Message.
+     * @return Frame including its length prefix.
+     * @throws IllegalArgumentException If the message type is unknown.
+     */
+    public static byte[] encode(Message message) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            // Placeholder for the length, filled in below.
+            out.writeInt(0);
+            out.writeByte(message.getMessageType());
+            out.writeInt(message.getId());
+            switch (message.getMessageType()) {
+                case Message.CREATE:
+                    writeCreate((CreateMessage) message, out);
+                    break;
+                case Message.ARRIVE:
+                    ArriveMessage arrive = (ArriveMessage) message;
+                    out.writeInt(arrive.getTransporter().getId());
+                    out.writeInt(arrive.getDepotIndex());
+                    break;
+                case Message.SPEED:
+                    SpeedMessage speed = (SpeedMessage) message;
+                    out.writeFloat(speed.getSpeed());
+                    out.writeUTF(speed.getDateString());
+                    break;
+                case Message.CRANE:
+                    writeCrane((CraneMessage) message, out);
+                    break;
+                case Message.MOVE:
+                    writeMove((MoveMessage) message, out);
+                    break;
+                case Message.DEPART:
+                    out.writeInt(((DepartMessage) message).getTransporter().getId());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown message type " + message.getMessageType());
+            }
+        } catch (IOException e) {
+            // Writing to memory does not fail.
+            throw new IllegalStateException(e);
+        }
+        byte[] frame = bytes.toByteArray();
+        int length = frame.length - 4;
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        return frame;
+    }
+
+    /**
+     * Writes the frame that acknowledges a message, as a client does.
+     *
+     * @param id  Id of the acknowledged message.
+     * @param out Stream to write to.
+     */
+    public static void writeAck(int id, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(ACK_LENGTH);
+        data.writeByte(ACK);
+        data.writeInt(id);
+        data.flush();
+    }
+
+    /**
+     * Reads the next ack.
+     *
+     * @param in Stream of frames sent by the client.
+     * @return Id of the acknowledged message.
+     * @throws EOFException When the client closed the connection.
+     * @throws IOException  When the stream holds something other than an ack.
+     */
+    public static int readAck(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length != ACK_LENGTH) {
+            throw new IOException("Invalid ack length " + length);
+        }
+        byte type = in.readByte();
+        if (type != ACK) {
+            throw new IOException("Expected an ack, got frame type " + type);
+        }
+        return in.readInt();
+    }
+
+    /**
+     * Reads the handshake of a client, if it sent one.
+     *
+     * @param in Stream from the client, positioned at the start of the connection.
+     * @return Whether the client asked for the binary protocol.
+     */
+    static boolean readHandshake(InputStream in) throws IOException {
+        byte[] received = new byte[HANDSHAKE.length];
+        int read = 0;
+        while (read < received.length) {
+            int count = in.read(received, read, received.length - read);
+            if (count == -1) {
+                return false;
+            }
+            read += count;
+        }
+        return Arrays.equals(received, HANDSHAKE);
+    }
+
+    private static void writeCreate(CreateMessage message, DataOutputStream out) throws IOException {
+        Transporter transporter = message.getTransporter();
+        List<Container> containers = transporter.getContainers();
+        out.writeUTF(transporter.getType());
+        out.writeInt(transporter.getId());
+
+        // Containers of a transporter share few owners, so the owners are written once and referred to by index.
+        Map<String, Integer> ownerIndices = new HashMap<>();
+        List<String> owners = new ArrayList<>();
+        for (Container container : containers) {
+            if (!ownerIndices.containsKey(container.getOwner())) {
+                ownerIndices.put(container.getOwner(), owners.size());
+                owners.add(container.getOwner());
+            }
+        }
+        out.writeShort(owners.size());
+        for (String owner : owners) {
+            out.writeUTF(owner);
+        }
+
+        out.writeInt(containers.size());
+        for (Container container : containers) {
+            out.writeInt(container.getNumber());
+            out.writeShort(ownerIndices.get(container.getOwner()));
+            out.writeShort(container.getSpawnX());
+            out.writeShort(container.getSpawnY());
+            out.writeShort(container.getSpawnZ());
+            out.writeLong(container.getDepartureTime());
+        }
+    }
+
+    private static void writeCrane(CraneMessage message, DataOutputStream out) throws IOException {
+        Transporter transporter = message.getTransporter();
+        out.writeUTF(message.getCrane().getType());
+        out.writeInt(message.getCrane().getId());
+        out.writeUTF(transporter == null ? "" : transporter.getType());
+        out.writeInt(transporter == null ? -1 : transporter.getId());
+        out.writeByte(1);
+        out.writeInt(message.getAgv().getId());
+        out.writeInt(message.getContainer().getNumber());
+    }
+
+    private static void writeMove(MoveMessage message, DataOutputStream out) throws IOException {
+        Route route = message.getRoute();
+        out.writeInt(message.getAgv().getId());
+        out.writeFloat(message.getAgv().getX());
+        out.writeFloat(message.getAgv().getY());
+        out.writeShort(route.length());
+        for (int i = 0; i < route.length(); i++) {
+            out.writeUTF(route.name(i));
+        }
+        out.writeUTF(message.getCrane().getType());
+        out.writeInt(message.getEndLocationId());
+    }
+}
@@ -0,0 +1,43 @@
+package org.nhl.containing_backend.communication;
+
+import org.nhl.containing_backend.communication.messages.Message;
+
+/**
+ * Connection of the controller to the simulator.
+ * <p/>
+ * Running the connection sets it up; the controller waits for it with awaitConnection() before sending messages.
+ */
+public interface Connection extends Runnable {
+
+    /**
+     * Blocks until the connection has been set up, or failed to.
+     *
+     * @return Whether the connection is running.
+     */
+    public boolean awaitConnection();
+
+    /**
+     * Sends a message to the simulator.
+     *
+     * @param message XML message.
+     */
+    public void writeMessage(String message);
+
+    /**
+     * Sends a message to the simulator in the protocol the simulator talks.
+     *
+     * @param message Message to send.
+     */
+    public void send(Message message);
+
+    /**
+     * Sets the listener that is told about every message received from the simulator.
+     *
+     * @param messageListener Listener for received messages.
+     */
+    public void setMessageListener(MessageListener messageListener);
+
+    public void stop();
+
+    public boolean isRunning();
+}
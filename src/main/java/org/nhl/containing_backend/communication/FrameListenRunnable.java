@@ -0,0 +1,55 @@
+package org.nhl.containing_backend.communication;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Listener thread for clients that talk the binary protocol.
+ * <p/>
+ * Every ack frame is handed to the message listener as soon as it arrives.
+ */
+class FrameListenRunnable implements Runnable {
+
+    DataInputStream in;
+    private volatile boolean running;
+    private volatile MessageListener listener;
+
+    public FrameListenRunnable(DataInputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public void run() {
+        this.running = true;
+
+        try {
+            while (running) {
+                int id = BinaryProtocol.readAck(in);
+                MessageListener listener = this.listener;
+                if (listener != null) {
+                    listener.ackReceived(id);
+                }
+            }
+        } catch (IOException e) {
+            // End of the stream, or the client broke the protocol.
+        }
+
+        running = false;
+        MessageListener listener = this.listener;
+        if (listener != null) {
+            listener.disconnected();
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public void setListener(MessageListener listener) {
+        this.listener = listener;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
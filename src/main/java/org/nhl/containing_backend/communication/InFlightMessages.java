@@ -0,0 +1,197 @@
+package org.nhl.containing_backend.communication;
+
+import org.nhl.containing_backend.communication.messages.Message;
+
+/**
+ * Messages that have been sent to the simulator and have not been acknowledged yet, indexed on their id.
+ * <p/>
+ * The messages are kept in an open addressing table keyed on the primitive id, so looking up and removing the
+ * message of an ack takes constant time no matter how many messages are in flight. The table remembers when every
+ * message was sent, and keeps the ack latency per message type.
+ */
+public class InFlightMessages {
+
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * Message types are numbered from 1, see Message.
+     */
+    private static final int TYPES = Message.DEPART + 1;
+
+    private int[] ids;
+    private Message[] messages;
+    private long[] sendTimes;
+    private int size;
+
+    private final long[] ackCounts = new long[TYPES];
+    private final long[] latencySums = new long[TYPES];
+    private final long[] latencyMaxima = new long[TYPES];
+
+    public InFlightMessages() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Adds a message that is being sent now.
+     *
+     * @param message Sent message.
+     */
+    public void add(Message message) {
+        add(message, System.nanoTime());
+    }
+
+    /**
+     * Adds a sent message. A message with the same id replaces the earlier one.
+     *
+     * @param message  Sent message.
+     * @param sendTime Time at which the message was sent, in nanoseconds.
+     */
+    public void add(Message message, long sendTime) {
+        if ((size + 1) * 2 > ids.length) {
+            resize(ids.length * 2);
+        }
+        int slot = find(message.getId());
+        if (messages[slot] == null) {
+            size++;
+        }
+        ids[slot] = message.getId();
+        messages[slot] = message;
+        sendTimes[slot] = sendTime;
+    }
+
+    /**
+     * Removes the message that has been acknowledged now.
+     *
+     * @param id Id of the acknowledged message.
+     * @return The message, or null if no message with the id is in flight.
+     */
+    public Message remove(int id) {
+        return remove(id, System.nanoTime());
+    }
+
+    /**
+     * Removes an acknowledged message and records its latency.
+     *
+     * @param id      Id of the acknowledged message.
+     * @param ackTime Time at which the ack was received, in nanoseconds.
+     * @return The message, or null if no message with the id is in flight.
+     */
+    public Message remove(int id, long ackTime) {
+        int slot = find(id);
+        Message message = messages[slot];
+        if (message == null) {
+            return null;
+        }
+        long latency = ackTime - sendTimes[slot];
+        int type = message.getMessageType();
+        if (type > 0 && type < TYPES) {
+            ackCounts[type]++;
+            latencySums[type] += latency;
+            latencyMaxima[type] = Math.max(latencyMaxima[type], latency);
+        }
+        delete(slot);
+        return message;
+    }
+
+    /**
+     * @param id Id of a message.
+     * @return The message, or null if no message with the id is in flight.
+     */
+    public Message get(int id) {
+        return messages[find(id)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param type Message type, e.g. Message.CRANE.
+     * @return Amount of acknowledged messages of the type.
+     */
+    public long getAckCount(int type) {
+        return ackCounts[type];
+    }
+
+    /**
+     * @param type Message type, e.g. Message.CRANE.
+     * @return Mean latency of the acknowledged messages of the type in nanoseconds, or 0 if none were acknowledged.
+     */
+    public long getMeanLatency(int type) {
+        return ackCounts[type] == 0 ? 0 : latencySums[type] / ackCounts[type];
+    }
+
+    /**
+     * @param type Message type, e.g. Message.CRANE.
+     * @return Highest latency of the acknowledged messages of the type in nanoseconds.
+     */
+    public long getMaxLatency(int type) {
+        return latencyMaxima[type];
+    }
+
+    /**
+     * Finds the slot of an id: the slot that holds it, or the empty slot where it would go.
+     */
+    private int find(int id) {
+        int mask = ids.length - 1;
+        int slot = hash(id) & mask;
+        while (messages[slot] != null && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empties a slot and shifts the entries after it back, so no lookup has to step over a hole.
+     */
+    private void delete(int slot) {
+        int mask = ids.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (messages[next] != null) {
+            int home = hash(ids[next]) & mask;
+            // Move the entry into the hole if the hole lies between its home slot and its current slot.
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                ids[hole] = ids[next];
+                messages[hole] = messages[next];
+                sendTimes[hole] = sendTimes[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        messages[hole] = null;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        int[] oldIds = ids;
+        Message[] oldMessages = messages;
+        long[] oldSendTimes = sendTimes;
+        allocate(capacity);
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldMessages[i] != null) {
+                int slot = find(oldIds[i]);
+                ids[slot] = oldIds[i];
+                messages[slot] = oldMessages[i];
+                sendTimes[slot] = oldSendTimes[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        messages = new Message[capacity];
+        sendTimes = new long[capacity];
+    }
+
+    /**
+     * Spreads consecutive ids over the table.
+     */
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -6,12 +6,15 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Listener thread.
+ * <p/>
+ * Received messages are handed to the message listener if there is one, and queued for getMessage() otherwise.
  */
 class ListenRunnable implements Runnable {
 
     BufferedReader in;
     ConcurrentLinkedQueue<String> queue;
-    private boolean running;
+    private volatile boolean running;
+    private volatile MessageListener listener;
 
     public ListenRunnable(BufferedReader in) {
         this.in = in;
@@ -28,14 +31,23 @@ class ListenRunnable implements Runnable {
                 if (!running || inputLine.equals("quit")) {
                     break;
                 }
-                // Write to queue
-                queue.add(inputLine);
                 System.out.println("Received " + inputLine);
+                MessageListener listener = this.listener;
+                if (listener != null) {
+                    listener.messageReceived(inputLine);
+                } else {
+                    // Write to queue
+                    queue.add(inputLine);
+                }
             }
         } catch (IOException e) {
         }
 
         running = false;
+        MessageListener listener = this.listener;
+        if (listener != null) {
+            listener.disconnected();
+        }
     }
 
     public void stop() {
@@ -46,6 +58,10 @@ class ListenRunnable implements Runnable {
         return queue.poll();
     }
 
+    public void setListener(MessageListener listener) {
+        this.listener = listener;
+    }
+
     public boolean isRunning() {
         return running;
     }
@@ -0,0 +1,19 @@
+package org.nhl.containing_backend.communication;
+
+/**
+ * Interface for things that want to be told about incoming messages as soon as they arrive.
+ * <p/>
+ * The methods are called from the listener thread.
+ */
+public interface MessageListener {
+    public void messageReceived(String message);
+
+    /**
+     * Called for every ack of a client that talks the binary protocol.
+     *
+     * @param id Id of the acknowledged message.
+     */
+    public void ackReceived(int id);
+
+    public void disconnected();
+}
@@ -0,0 +1,359 @@
+package org.nhl.containing_backend.communication;
+
+import org.nhl.containing_backend.communication.messages.Message;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Server that serves any number of clients from a single thread.
+ * <p/>
+ * Every client gets a non-blocking channel with its own read buffer and queue of pending writes, and a selector
+ * tells the server thread which channels can be read or written. Every message of the controller is encoded once
+ * and broadcast to all connected clients.
+ * <p/>
+ * The first client that connects is the primary client, usually the viewer: only its messages are passed on to the
+ * message listener, and the controller is told it disconnected when the primary client leaves. Clients that connect
+ * later, like monitors, only receive the messages of the controller.
+ */
+public class SelectorServer implements Connection {
+
+    private static final int PORT_NUMBER = 6666;
+    private static final int READ_BUFFER_SIZE = 8192;
+    /**
+     * A client that falls this many bytes behind is disconnected, so it cannot make the server run out of memory.
+     */
+    private static final long MAX_PENDING_BYTES = 64L * 1024 * 1024;
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator").getBytes(CHARSET);
+
+    private final int portNumber;
+    private final CountDownLatch connected = new CountDownLatch(1);
+    private final ConcurrentLinkedQueue<ByteBuffer> outbox = new ConcurrentLinkedQueue<>();
+    private final List<Client> clients = new ArrayList<>();
+    private final StringBuilder xml = new StringBuilder(1024);
+    private volatile Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Client primary;
+    private MessageListener messageListener;
+
+    private volatile boolean running;
+
+    public SelectorServer() {
+        this(PORT_NUMBER);
+    }
+
+    /**
+     * @param portNumber Port to listen on.
+     */
+    public SelectorServer(int portNumber) {
+        this.portNumber = portNumber;
+    }
+
+    @Override
+    public void run() {
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.configureBlocking(false);
+            serverChannel.socket().bind(new InetSocketAddress(portNumber));
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            System.out.println("Waiting for clients");
+            running = true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            connected.countDown();
+            return;
+        }
+
+        try {
+            while (running) {
+                selector.select();
+                broadcast();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Client client = (Client) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(client);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(client);
+                        }
+                    } catch (IOException e) {
+                        close(client);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            running = false;
+            connected.countDown();
+            for (Client client : new ArrayList<>(clients)) {
+                close(client);
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Blocks until the primary client has connected, or the server failed to start.
+     *
+     * @return Whether the server is running.
+     */
+    @Override
+    public boolean awaitConnection() {
+        try {
+            connected.await();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        return running;
+    }
+
+    /**
+     * Sends a message to every connected client. May be called from any thread.
+     *
+     * @param message XML message.
+     */
+    @Override
+    public void writeMessage(String message) {
+        queue(CHARSET.encode("<Controller>" + message + "</Controller>"));
+    }
+
+    /**
+     * Sends a message to every connected client. Clients of this server always talk XML.
+     *
+     * @param message Message to send.
+     */
+    @Override
+    public synchronized void send(Message message) {
+        xml.setLength(0);
+        xml.append("<Controller>");
+        message.appendXml(xml);
+        xml.append("</Controller>");
+        queue(CHARSET.encode(CharBuffer.wrap(xml)));
+    }
+
+    /**
+     * Sets the listener that is told about every message of the primary client. Call before the server starts.
+     *
+     * @param messageListener Listener for received messages.
+     */
+    @Override
+    public void setMessageListener(MessageListener messageListener) {
+        this.messageListener = messageListener;
+    }
+
+    /**
+     * Disconnects all clients and shuts down the server thread.
+     */
+    @Override
+    public void stop() {
+        System.out.println("Shutting down server");
+        running = false;
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Hands an encoded message without line separator to the server thread.
+     */
+    private void queue(ByteBuffer message) {
+        ByteBuffer buffer = ByteBuffer.allocate(message.remaining() + LINE_SEPARATOR.length);
+        buffer.put(message).put(LINE_SEPARATOR);
+        buffer.flip();
+        outbox.add(buffer);
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Client client = new Client(channel);
+        client.key = channel.register(selector, SelectionKey.OP_READ, client);
+        clients.add(client);
+        System.out.println("Connected to " + channel.socket().toString());
+        if (primary == null) {
+            primary = client;
+            connected.countDown();
+        }
+    }
+
+    /**
+     * Hands the messages the controller has written since the last round to every client. The buffers are shared:
+     * every client gets its own view on the same bytes.
+     */
+    private void broadcast() {
+        ByteBuffer buffer;
+        boolean any = false;
+        while ((buffer = outbox.poll()) != null) {
+            any = true;
+            for (Client client : clients) {
+                client.pending.add(buffer.duplicate());
+                client.pendingBytes += buffer.remaining();
+            }
+        }
+        if (!any) {
+            return;
+        }
+        for (Client client : new ArrayList<>(clients)) {
+            try {
+                if (client.pendingBytes > MAX_PENDING_BYTES) {
+                    System.out.println("Disconnecting " + client.channel.socket() + ": too far behind");
+                    close(client);
+                } else {
+                    write(client);
+                }
+            } catch (IOException e) {
+                close(client);
+            }
+        }
+    }
+
+    /**
+     * Writes as much of the pending messages of a client as its channel accepts, in a single gathering write.
+     */
+    private void write(Client client) throws IOException {
+        if (!client.pending.isEmpty()) {
+            ByteBuffer[] buffers = client.pending.toArray(new ByteBuffer[client.pending.size()]);
+            client.pendingBytes -= client.channel.write(buffers);
+            while (!client.pending.isEmpty() && !client.pending.peek().hasRemaining()) {
+                client.pending.poll();
+            }
+        }
+        // Only ask to be woken up for writing while there is something left to write.
+        int interest = SelectionKey.OP_READ;
+        if (!client.pending.isEmpty()) {
+            interest |= SelectionKey.OP_WRITE;
+        }
+        if (client.key.interestOps() != interest) {
+            client.key.interestOps(interest);
+        }
+    }
+
+    /**
+     * Reads what the client has sent and passes on every complete line.
+     */
+    private void read(Client client) throws IOException {
+        ByteBuffer in = client.in;
+        if (!in.hasRemaining()) {
+            // A single line does not fit in the buffer.
+            ByteBuffer larger = ByteBuffer.allocate(in.capacity() * 2);
+            in.flip();
+            larger.put(in);
+            in = client.in = larger;
+        }
+        if (client.channel.read(in) == -1) {
+            close(client);
+            return;
+        }
+
+        in.flip();
+        byte[] array = in.array();
+        int start = 0;
+        for (int i = 0; i < in.limit(); i++) {
+            if (array[i] == '\n') {
+                int end = i > start && array[i - 1] == '\r' ? i - 1 : i;
+                String line = new String(array, start, end - start, CHARSET);
+                start = i + 1;
+                if (!received(client, line)) {
+                    return;
+                }
+            }
+        }
+        in.position(start);
+        in.compact();
+    }
+
+    /**
+     * @return Whether the client is still connected.
+     */
+    private boolean received(Client client, String line) {
+        if (line.equals("quit")) {
+            close(client);
+            return false;
+        }
+        MessageListener listener = messageListener;
+        if (client == primary && listener != null) {
+            listener.messageReceived(line);
+        }
+        return true;
+    }
+
+    private void close(Client client) {
+        if (!clients.remove(client)) {
+            return;
+        }
+        client.key.cancel();
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (client == primary) {
+            MessageListener listener = messageListener;
+            if (listener != null) {
+                listener.disconnected();
+            }
+        }
+    }
+
+    /**
+     * State of a single connected client.
+     */
+    private static class Client {
+
+        private final SocketChannel channel;
+        private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+        private SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private long pendingBytes;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
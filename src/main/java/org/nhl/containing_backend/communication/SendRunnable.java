@@ -1,48 +1,111 @@
 package org.nhl.containing_backend.communication;
 
-import java.io.PrintWriter;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Sender thread.
+ * <p/>
+ * The thread blocks until a message is queued. It then takes every message that is waiting, copies them into one
+ * buffer and writes and flushes that once, so a burst of messages leaves in a single batch instead of one flush per
+ * message.
  */
 class SendRunnable implements Runnable {
 
-    PrintWriter out;
-    ConcurrentLinkedQueue<String> queue;
-    private boolean running;
+    /**
+     * Queued by stop() to wake up the thread. Compared by identity.
+     */
+    private static final byte[] STOP = new byte[0];
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator").getBytes(CHARSET);
 
-    public SendRunnable(PrintWriter out) {
+    OutputStream out;
+    BlockingQueue<byte[]> queue;
+    private final List<byte[]> batch = new ArrayList<>();
+    private byte[] buffer = new byte[8192];
+    private volatile boolean running;
+
+    /**
+     * @param out Output to write the messages to. It should not buffer by itself.
+     */
+    public SendRunnable(OutputStream out) {
         this.out = out;
-        this.queue = new ConcurrentLinkedQueue<>();
+        this.queue = new LinkedBlockingQueue<>();
     }
 
     @Override
     public void run() {
-        String outputLine;
         running = true;
 
         while (running) {
-            outputLine = queue.poll();
-            if (outputLine == null) {
-                try {
-                    Thread.sleep(500);
-                } catch (Throwable e) {
-                    e.printStackTrace();
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+                break;
+            }
+            queue.drainTo(batch);
+
+            int length = 0;
+            for (byte[] bytes : batch) {
+                if (bytes == STOP) {
+                    running = false;
+                    break;
+                }
+                if (length + bytes.length > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes.length));
+                }
+                System.arraycopy(bytes, 0, buffer, length, bytes.length);
+                length += bytes.length;
+            }
+            batch.clear();
+
+            try {
+                if (length > 0) {
+                    out.write(buffer, 0, length);
+                    out.flush();
                 }
-            } else {
-                // Send outputLine to client
-                out.println(outputLine);
-                System.out.println("Sent " + outputLine);
+            } catch (IOException e) {
+                // The connection is gone.
+                e.printStackTrace();
+                break;
             }
         }
+        running = false;
     }
 
     public void stop() {
         running = false;
+        queue.add(STOP);
+    }
+
+    /**
+     * Queues a message of the line protocol.
+     *
+     * @param message Message without line separator.
+     */
+    public void writeMessage(CharSequence message) {
+        ByteBuffer bytes = CHARSET.encode(CharBuffer.wrap(message));
+        byte[] line = new byte[bytes.remaining() + LINE_SEPARATOR.length];
+        bytes.get(line, 0, bytes.remaining());
+        System.arraycopy(LINE_SEPARATOR, 0, line, line.length - LINE_SEPARATOR.length, LINE_SEPARATOR.length);
+        queue.add(line);
     }
 
-    public void writeMessage(String message) {
-        queue.add(message);
+    /**
+     * Queues a frame of the binary protocol.
+     *
+     * @param frame Encoded frame, see BinaryProtocol.
+     */
+    public void writeFrame(byte[] frame) {
+        queue.add(frame);
     }
 }
@@ -1,24 +1,40 @@
 package org.nhl.containing_backend.communication;
 
+import org.nhl.containing_backend.communication.messages.Message;
+
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Server.
  */
-public class Server implements Runnable {
+public class Server implements Connection {
+    /**
+     * Milliseconds a new client gets to ask for the binary protocol.
+     */
+    private static final int HANDSHAKE_TIMEOUT = 500;
+    private static final int INITIAL_XML_CAPACITY = 1024;
     private final int portNumber = 6666;
+    private final CountDownLatch connected = new CountDownLatch(1);
     private ServerSocket serverSocket;
     private Socket clientSocket;
 
     private ListenRunnable listenRunnable;
+    private FrameListenRunnable frameListenRunnable;
     private SendRunnable sendRunnable;
+    private MessageListener messageListener;
 
-    private boolean running;
+    private volatile boolean running;
+    private volatile boolean binary;
+    private final StringBuilder xml = new StringBuilder(INITIAL_XML_CAPACITY);
 
     public Server() {
 
@@ -26,6 +42,7 @@ public class Server implements Runnable {
 
     @Override
     public void run() {
+        Thread listenThread;
         try {
             // Open up the socket.
             serverSocket = new ServerSocket(portNumber);
@@ -35,55 +52,124 @@ public class Server implements Runnable {
             clientSocket = serverSocket.accept();
             System.out.println("Connected to " + clientSocket.toString());
 
-            listenRunnable = new ListenRunnable(new BufferedReader(new InputStreamReader(clientSocket.getInputStream())));
-            sendRunnable = new SendRunnable(new PrintWriter(clientSocket.getOutputStream(), true));
-
-            Thread listenThread = new Thread(listenRunnable);
+            InputStream in = new BufferedInputStream(clientSocket.getInputStream());
+            binary = negotiate(in);
+            if (binary) {
+                System.out.println("Client talks the binary protocol");
+                frameListenRunnable = new FrameListenRunnable(new DataInputStream(in));
+                frameListenRunnable.setListener(messageListener);
+                listenThread = new Thread(frameListenRunnable);
+            } else {
+                listenRunnable = new ListenRunnable(new BufferedReader(new InputStreamReader(in)));
+                listenRunnable.setListener(messageListener);
+                listenThread = new Thread(listenRunnable);
+            }
+            sendRunnable = new SendRunnable(clientSocket.getOutputStream());
+            if (binary) {
+                sendRunnable.writeFrame(BinaryProtocol.HANDSHAKE);
+            }
             Thread sendThread = new Thread(sendRunnable);
 
             listenThread.start();
             sendThread.start();
+            running = true;
         } catch (IOException e) {
             e.printStackTrace();
+            return;
+        } finally {
+            connected.countDown();
         }
 
-        running = true;
+        // In case the client shuts down the listener, shut down everything.
+        try {
+            listenThread.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        if (running) {
+            this.stop();
+        }
+    }
 
-        while (running) {
-            try {
-                // Do nothing.
-                Thread.sleep(1000);
-            } catch (Throwable e) {
-                e.printStackTrace();
-            }
-            // In case the client shut down the listener, shut down everything.
-            if (!listenRunnable.isRunning()) {
-                this.stop();
-            }
+    /**
+     * Waits a moment for the client to ask for the binary protocol. A client that sends anything else, or nothing at
+     * all, talks XML; whatever it did send is left in the stream.
+     *
+     * @param in Buffered stream from the client.
+     * @return Whether the client talks the binary protocol.
+     */
+    private boolean negotiate(InputStream in) throws IOException {
+        in.mark(BinaryProtocol.HANDSHAKE.length);
+        clientSocket.setSoTimeout(HANDSHAKE_TIMEOUT);
+        boolean asked;
+        try {
+            asked = BinaryProtocol.readHandshake(in);
+        } catch (SocketTimeoutException e) {
+            asked = false;
+        }
+        clientSocket.setSoTimeout(0);
+        if (!asked) {
+            in.reset();
+        }
+        return asked;
+    }
+
+    /**
+     * Blocks until a client has connected, or the server failed to start.
+     *
+     * @return Whether the server is running.
+     */
+    @Override
+    public boolean awaitConnection() {
+        try {
+            connected.await();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
         }
+        return running;
     }
 
     /**
      * Shuts down the listeners and itself.
      */
+    @Override
     public void stop() {
         System.out.println("Shutting down server");
         try {
             listenRunnable.stop();
         } catch (Throwable e) {
         }
+        try {
+            frameListenRunnable.stop();
+        } catch (Throwable e) {
+        }
         try {
             sendRunnable.stop();
         } catch (Throwable e) {
         }
         running = false;
         try {
+            // Closing the client socket wakes up the listener.
+            if (clientSocket != null) {
+                clientSocket.close();
+            }
             serverSocket.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Sets the listener that is told about every received message as soon as it arrives. Received messages are then
+     * no longer available through getMessage(). Call before the client connects.
+     *
+     * @param messageListener Listener for received messages.
+     */
+    @Override
+    public void setMessageListener(MessageListener messageListener) {
+        this.messageListener = messageListener;
+    }
+
     /**
      * Fetches the latest message from the listener.
      *
@@ -98,10 +184,31 @@ public class Server implements Runnable {
      *
      * @param message XML message.
      */
+    @Override
     public void writeMessage(String message) {
         sendRunnable.writeMessage("<Controller>" + message + "</Controller>");
     }
 
+    /**
+     * Sends a message in the protocol the client asked for.
+     *
+     * @param message Message to send.
+     */
+    @Override
+    public synchronized void send(Message message) {
+        if (binary) {
+            sendRunnable.writeFrame(BinaryProtocol.encode(message));
+            return;
+        }
+        // The message is written straight into the reused builder, and from there encoded into the sender queue.
+        xml.setLength(0);
+        xml.append("<Controller>");
+        message.appendXml(xml);
+        xml.append("</Controller>");
+        sendRunnable.writeMessage(xml);
+    }
+
+    @Override
     public boolean isRunning() {
         return running;
     }
@@ -17,17 +17,16 @@ public class ArriveMessage extends Message {
     }
 
     @Override
-    public String generateXml() {
-        String message = "";
-        message += "<id>" + getId() + "</id>";
-        message += "<Arrive>";
+    public StringBuilder appendXml(StringBuilder builder) {
+        builder.append("<id>").append(getId()).append("</id>");
+        builder.append("<Arrive>");
 
-        message += "<transporterId>" + transporter.getId() + "</transporterId>";
-        message += "<depotIndex>" + depotIndex + "</depotIndex>";
+        builder.append("<transporterId>").append(transporter.getId()).append("</transporterId>");
+        builder.append("<depotIndex>").append(depotIndex).append("</depotIndex>");
 
-        message += "</Arrive>";
+        builder.append("</Arrive>");
 
-        return message;
+        return builder;
     }
 
     public Transporter getTransporter() {
@@ -27,24 +27,23 @@ public class CraneMessage extends Message {
     }
 
     @Override
-    public String generateXml() {
-        String message = "";
-        message += "<id>" + getId() + "</id>";
-        message += "<Crane>";
-        
-        message += "<CraneType>" + crane.getType() + "</CraneType>";
-        message += "<CraneId>"+ crane.getId() + "</CraneId>";
-        
-        message += "<TransporterType>" + transporter.getType() + "</TransporterType>";
-        message += "<TransporterId>"+ transporter.getId() + "</TransporterId>";
-        
-        message += "<Storage>" + 1 + "</Storage>";
-        message += "<AgvId>" + agv.getId() + "</AgvId>";
-        
-        message += "<Container>" + container.getNumber() + "</Container>";
-        message += "</Crane>";
+    public StringBuilder appendXml(StringBuilder builder) {
+        builder.append("<id>").append(getId()).append("</id>");
+        builder.append("<Crane>");
 
-        return message;
+        builder.append("<CraneType>").append(crane.getType()).append("</CraneType>");
+        builder.append("<CraneId>").append(crane.getId()).append("</CraneId>");
+
+        builder.append("<TransporterType>").append(transporter.getType()).append("</TransporterType>");
+        builder.append("<TransporterId>").append(transporter.getId()).append("</TransporterId>");
+
+        builder.append("<Storage>").append(1).append("</Storage>");
+        builder.append("<AgvId>").append(agv.getId()).append("</AgvId>");
+
+        builder.append("<Container>").append(container.getNumber()).append("</Container>");
+        builder.append("</Crane>");
+
+        return builder;
     }
 
     public Transporter getTransporter() {
@@ -16,20 +16,20 @@ public class CreateMessage extends Message {
     }
 
     @Override
-    public String generateXml() {
-        String message = "";
-        message += "<id>" + getId() + "</id>";
-        message += "<Create>";
-        message += "<Transporter type=\"" + transporter.getType() + "\" identifier=\"" + transporter.getId() +"\">";
+    public StringBuilder appendXml(StringBuilder builder) {
+        builder.append("<id>").append(getId()).append("</id>");
+        builder.append("<Create>");
+        builder.append("<Transporter type=\"").append(transporter.getType())
+                .append("\" identifier=\"").append(transporter.getId()).append("\">");
 
         for (Container container : transporter.getContainers()) {
-            message += container.toXml();
+            container.appendXml(builder);
         }
 
-        message += "</Transporter>";
-        message += "</Create>";
+        builder.append("</Transporter>");
+        builder.append("</Create>");
 
-        return message;
+        return builder;
     }
 
     public Transporter getTransporter() {
@@ -15,14 +15,13 @@ public class DepartMessage extends Message {
     }
 
     @Override
-    public String generateXml() {
-        String message = "";
-        message += "<id>" + getId() + "</id>";
-        message += "<Depart>";
-        message += "<transporterId>" + transporter.getId() + "</transporterId>";
-        message += "</Depart>";
+    public StringBuilder appendXml(StringBuilder builder) {
+        builder.append("<id>").append(getId()).append("</id>");
+        builder.append("<Depart>");
+        builder.append("<transporterId>").append(transporter.getId()).append("</transporterId>");
+        builder.append("</Depart>");
 
-        return message;
+        return builder;
     }
 
     public Transporter getTransporter() {
@@ -19,7 +19,20 @@ public abstract class Message {
         this.id = counter;
     }
 
-    public abstract String generateXml();
+    /**
+     * Write the message in XML, e.g. "&lt;id&gt;5&lt;/id&gt;&lt;Depart&gt;...&lt;/Depart&gt;".
+     * <p/>
+     * The message is appended to the provided builder, so a sender can reuse one builder for every message it
+     * writes.
+     *
+     * @param builder Builder to append to.
+     * @return The provided builder.
+     */
+    public abstract StringBuilder appendXml(StringBuilder builder);
+
+    public String generateXml() {
+        return appendXml(new StringBuilder()).toString();
+    }
 
     public int getMessageType() {
         return messageType;
@@ -1,6 +1,7 @@
 package org.nhl.containing_backend.communication.messages;
 
 import org.nhl.containing_backend.cranes.Crane;
+import org.nhl.containing_backend.routing.Route;
 import org.nhl.containing_backend.vehicles.Agv;
 
 /**
@@ -9,38 +10,47 @@ import org.nhl.containing_backend.vehicles.Agv;
 public class MoveMessage extends Message {
 
     private Agv agv;
-    private String dijkstra;
+    private Route route;
     private Crane crane;
     private int endLocationId;
 
-    public MoveMessage(Agv agv, String dijkstra, Crane crane) {
+    public MoveMessage(Agv agv, Route route, Crane crane) {
         super(Message.MOVE);
         this.agv = agv;
-        this.dijkstra = dijkstra;
+        this.route = route;
         this.crane = crane;
         this.endLocationId = crane.getId();
     }
 
     @Override
-    public String generateXml() {
-        String message = "";
-        message += "<id>" + getId() + "</id>";
-        message += "<Move>";
-        message += "<AgvId>" + agv.getId() + "</AgvId>";
-        message += "<CurrentX>" + agv.getX() + "</CurrentX>";
-        message += "<CurrentY>" + agv.getY() + "</CurrentY>";
-        message += "<Dijkstra>" + dijkstra + "</Dijkstra>";
-        message += "<EndLocationType>" + crane.getType() + "</EndLocationType>";
-        message += "<EndLocationId>" + crane.getId() + "</EndLocationId>";
-        message += "</Move>";
+    public StringBuilder appendXml(StringBuilder builder) {
+        builder.append("<id>").append(getId()).append("</id>");
+        builder.append("<Move>");
+        builder.append("<AgvId>").append(agv.getId()).append("</AgvId>");
+        builder.append("<CurrentX>").append(agv.getX()).append("</CurrentX>");
+        builder.append("<CurrentY>").append(agv.getY()).append("</CurrentY>");
+        builder.append("<Dijkstra>");
+        route.appendTo(builder);
+        builder.append("</Dijkstra>");
+        builder.append("<EndLocationType>").append(crane.getType()).append("</EndLocationType>");
+        builder.append("<EndLocationId>").append(crane.getId()).append("</EndLocationId>");
+        builder.append("</Move>");
         this.endLocationId = crane.getId();
-        return message;
+        return builder;
     }
 
     public Agv getAgv() {
         return agv;
     }
 
+    public Route getRoute() {
+        return route;
+    }
+
+    public Crane getCrane() {
+        return crane;
+    }
+
     public int getEndLocationId() {
         return endLocationId;
     }
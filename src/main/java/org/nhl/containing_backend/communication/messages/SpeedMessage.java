@@ -15,22 +15,25 @@ public class SpeedMessage extends Message {
     }
 
     @Override
-    public String generateXml() {
-        String message = "";
-        message += "<id>" + getId() + "</id>";
-        message += "<SpeedMessage>";
-        message += "<Speed>";
-        message += speed;
-        message += "</Speed>";
-        message += "<DateString>";
-        message += dateString;
-        message += "</DateString>";
-        message += "</SpeedMessage>";
+    public StringBuilder appendXml(StringBuilder builder) {
+        builder.append("<id>").append(getId()).append("</id>");
+        builder.append("<SpeedMessage>");
+        builder.append("<Speed>");
+        builder.append(speed);
+        builder.append("</Speed>");
+        builder.append("<DateString>");
+        builder.append(dateString);
+        builder.append("</DateString>");
+        builder.append("</SpeedMessage>");
 
-        return message;
+        return builder;
     }
 
     public float getSpeed() {
         return speed;
     }
+
+    public String getDateString() {
+        return dateString;
+    }
 }
@@ -0,0 +1,124 @@
+package org.nhl.containing_backend.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Containers that have yet to arrive, ordered by arrival time.
+ * <p/>
+ * The added lists are kept as they are, with an index of their positions sorted on arrival time and a cursor pointing
+ * at the first container that has not been released yet. Lists that know their arrival times, such as cached
+ * snapshots, are not materialised until their containers are released. Releasing the containers of a tick only
+ * touches the containers whose arrival time has passed, no matter how many containers are waiting.
+ */
+public class ArrivalQueue {
+
+    private List<Container> pending = Collections.emptyList();
+    /**
+     * Positions in pending, sorted on arrival time.
+     */
+    private int[] order = new int[0];
+    /**
+     * Arrival time of the container at each position of order.
+     */
+    private long[] times = new long[0];
+    private int cursor;
+    private int size;
+
+    /**
+     * Add finalised containers to the queue. Containers with equal arrival times keep the order in which they were
+     * added. A list is kept without copying, so it must not be changed afterwards.
+     *
+     * @param added Containers that have yet to arrive.
+     */
+    public void addAll(Collection<Container> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        List<Container> list = added instanceof List ? (List<Container>) added : new ArrayList<>(added);
+        int remaining = size - cursor;
+        int offset = 0;
+        if (remaining == 0) {
+            pending = list;
+        } else {
+            offset = pending.size();
+            List<List<Container>> parts = new ArrayList<>();
+            parts.add(pending);
+            parts.add(list);
+            pending = new JoinedContainerList(parts);
+        }
+
+        final long[] addedTimes = new long[list.size()];
+        Integer[] addedOrder = new Integer[list.size()];
+        for (int i = 0; i < addedOrder.length; i++) {
+            addedTimes[i] = JoinedContainerList.arrivalTime(list, i);
+            addedOrder[i] = i;
+        }
+        // Stable sort, so the order of the input is kept for equal arrival times.
+        Arrays.sort(addedOrder, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(addedTimes[a], addedTimes[b]);
+            }
+        });
+
+        // Merge with the containers that were already waiting; those go first on equal arrival times.
+        int[] mergedOrder = new int[remaining + addedOrder.length];
+        long[] mergedTimes = new long[mergedOrder.length];
+        int i = cursor;
+        int j = 0;
+        for (int k = 0; k < mergedOrder.length; k++) {
+            if (j == addedOrder.length || (i < size && times[i] <= addedTimes[addedOrder[j]])) {
+                mergedOrder[k] = order[i];
+                mergedTimes[k] = times[i++];
+            } else {
+                mergedOrder[k] = offset + addedOrder[j];
+                mergedTimes[k] = addedTimes[addedOrder[j++]];
+            }
+        }
+        order = mergedOrder;
+        times = mergedTimes;
+        cursor = 0;
+        size = mergedOrder.length;
+    }
+
+    /**
+     * Remove and return all containers that arrive before the provided time.
+     *
+     * @param time Epoch milliseconds.
+     * @return Containers with an arrival time before the provided time, in order of arrival.
+     */
+    public List<Container> releaseBefore(long time) {
+        int start = cursor;
+        while (cursor < size && times[cursor] < time) {
+            cursor++;
+        }
+        if (cursor == start) {
+            return Collections.emptyList();
+        }
+        List<Container> result = new ArrayList<>(cursor - start);
+        for (int i = start; i < cursor; i++) {
+            result.add(pending.get(order[i]));
+        }
+        return result;
+    }
+
+    /**
+     * @return Arrival time of the next container in epoch milliseconds, or Long.MAX_VALUE if the queue is empty.
+     */
+    public long nextArrivalTime() {
+        return cursor < size ? times[cursor] : Long.MAX_VALUE;
+    }
+
+    public int size() {
+        return size - cursor;
+    }
+
+    public boolean isEmpty() {
+        return cursor == size;
+    }
+}
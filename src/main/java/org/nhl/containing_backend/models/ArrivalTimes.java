@@ -0,0 +1,13 @@
+package org.nhl.containing_backend.models;
+
+/**
+ * List of containers that knows their arrival times without materialising the containers.
+ */
+public interface ArrivalTimes {
+
+    /**
+     * @param index Index of the container in the list.
+     * @return Arrival time of the container in epoch milliseconds.
+     */
+    long arrivalTime(int index);
+}
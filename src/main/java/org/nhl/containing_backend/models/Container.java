@@ -35,6 +35,8 @@ public class Container {
     private float length;
     private float width;
     private float height;
+    private long arrivalTime;   // Arrival date in epoch milliseconds, calculated by finalise().
+    private long departureTime; // Departure date in epoch milliseconds, calculated by finalise().
 
     public Container() {
     }
@@ -107,28 +109,44 @@ public class Container {
     }
 
     /**
-     * Fixes all (known) errors from XML input.
+     * Fixes all (known) errors from XML input and calculates the arrival and departure times.
      */
     public void finalise() {
         if (getSpawnX() == 1 && getSpawnY() == 0 && getSpawnZ() == 0 && arrivalTransportType.equals("vrachtauto")) {
             setSpawnX(0);
         }
+        if (arrivalSpanStart != null) {
+            arrivalTime = getArrivalDate().getTime();
+        }
+        if (departureSpanStart != null) {
+            departureTime = getDepartureDate().getTime();
+        }
     }
 
     public String toXml() {
-        String message = "";
-        message += "<Container>";
+        return appendXml(new StringBuilder()).toString();
+    }
 
-        message += "<containernr>" + number + "</containernr>";
-        message += "<owner>" + owner + "</owner>";
-        message += "<xLoc>" + getSpawnX() + "</xLoc>";
-        message += "<yLoc>" + getSpawnY() + "</yLoc>";
-        message += "<zLoc>" + getSpawnZ() + "</zLoc>";
-        message += "<date>" + getDepartureDate() + "</date>";
+    /**
+     * Write the container in XML, as part of a message for the simulator. Only valid after finalise() has been called.
+     *
+     * @param builder Builder to append to.
+     * @return The provided builder.
+     */
+    public StringBuilder appendXml(StringBuilder builder) {
+        builder.append("<Container>");
 
-        message += "</Container>";
+        builder.append("<containernr>").append(number).append("</containernr>");
+        builder.append("<owner>").append(owner).append("</owner>");
+        builder.append("<xLoc>").append(getSpawnX()).append("</xLoc>");
+        builder.append("<yLoc>").append(getSpawnY()).append("</yLoc>");
+        builder.append("<zLoc>").append(getSpawnZ()).append("</zLoc>");
+        // Written from the departure time, so no Calendar and Date are created for every container of a message.
+        DateText.append(builder.append("<date>"), departureTime).append("</date>");
 
-        return message;
+        builder.append("</Container>");
+
+        return builder;
     }
 
     public Date getArrivalDate() {
@@ -143,6 +161,32 @@ public class Container {
                 Integer.parseInt(departureSpanStart.substring(3, 4)));
     }
 
+    /**
+     * Arrival date in epoch milliseconds. Only valid after finalise() has been called.
+     *
+     * @return Epoch milliseconds equal to getArrivalDate().getTime().
+     */
+    public long getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(long arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    /**
+     * Departure date in epoch milliseconds. Only valid after finalise() has been called.
+     *
+     * @return Epoch milliseconds equal to getDepartureDate().getTime().
+     */
+    public long getDepartureTime() {
+        return departureTime;
+    }
+
+    public void setDepartureTime(long departureTime) {
+        this.departureTime = departureTime;
+    }
+
     public int getNumber() {
         return number;
     }
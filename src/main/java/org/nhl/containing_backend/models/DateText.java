@@ -0,0 +1,86 @@
+package org.nhl.containing_backend.models;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Writes epoch milliseconds in the format of Date.toString(), e.g. "Thu Dec 04 09:00:01 CET 2004", without creating a
+ * Date or Calendar.
+ * <p/>
+ * Dates are written in the default time zone, like Date.toString() does. Only dates in the Gregorian calendar are
+ * supported, which covers every date in the container files.
+ */
+final class DateText {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    // The epoch was on a Thursday.
+    private static final String[] DAYS = {"Thu", "Fri", "Sat", "Sun", "Mon", "Tue", "Wed"};
+    private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct",
+            "Nov", "Dec"};
+
+    /**
+     * Names of the zone the last date was written in. The default zone rarely changes, so looking up its names once
+     * is enough.
+     */
+    private static volatile DateText last;
+
+    private final TimeZone zone;
+    private final String standardName;
+    private final String daylightName;
+
+    private DateText(TimeZone zone) {
+        this.zone = zone;
+        this.standardName = zone.getDisplayName(false, TimeZone.SHORT, Locale.US);
+        this.daylightName = zone.getDisplayName(true, TimeZone.SHORT, Locale.US);
+    }
+
+    /**
+     * @param builder Builder to append to.
+     * @param time    Epoch milliseconds.
+     * @return The provided builder.
+     */
+    static StringBuilder append(StringBuilder builder, long time) {
+        TimeZone zone = TimeZone.getDefault();
+        DateText text = last;
+        if (text == null || !text.zone.getID().equals(zone.getID())) {
+            text = new DateText(zone);
+            last = text;
+        }
+        return text.appendTo(builder, time);
+    }
+
+    private StringBuilder appendTo(StringBuilder builder, long time) {
+        int offset = zone.getOffset(time);
+        long local = time + offset;
+        long days = (local >= 0 ? local : local - DAY + 1) / DAY;
+        int millisOfDay = (int) (local - days * DAY);
+
+        // Civil date from days since the epoch, with years starting in March so the leap day comes last.
+        long shifted = days + 719468;
+        long era = (shifted >= 0 ? shifted : shifted - 146096) / 146097;
+        int dayOfEra = (int) (shifted - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthFromMarch = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * monthFromMarch + 2) / 5 + 1;
+        int month = monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        int dayOfWeek = (int) (days % 7);
+        builder.append(DAYS[dayOfWeek < 0 ? dayOfWeek + 7 : dayOfWeek]).append(' ');
+        builder.append(MONTHS[month - 1]).append(' ');
+        twoDigits(builder, day).append(' ');
+        twoDigits(builder, millisOfDay / 3600000).append(':');
+        twoDigits(builder, millisOfDay / 60000 % 60).append(':');
+        twoDigits(builder, millisOfDay / 1000 % 60).append(' ');
+        builder.append(offset != zone.getRawOffset() ? daylightName : standardName).append(' ');
+        return builder.append(year);
+    }
+
+    private static StringBuilder twoDigits(StringBuilder builder, int value) {
+        if (value < 10) {
+            builder.append('0');
+        }
+        return builder.append(value);
+    }
+}
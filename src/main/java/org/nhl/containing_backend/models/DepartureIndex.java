@@ -0,0 +1,141 @@
+package org.nhl.containing_backend.models;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index of stored containers on departure transport type and departure time.
+ * <p/>
+ * Per transport type the containers are kept in a sorted map from departure time to the containers leaving at that
+ * time, so the next containers to leave by a given type of transport are found in logarithmic time. Containers with
+ * equal departure times are returned in the order in which they were added.
+ */
+public class DepartureIndex {
+
+    private final HashMap<String, TreeMap<Long, ArrayDeque<Container>>> index = new HashMap<>();
+    private int size;
+
+    /**
+     * Add a finalised container to the index.
+     *
+     * @param container Container that has been stored.
+     */
+    public void add(Container container) {
+        TreeMap<Long, ArrayDeque<Container>> times = index.get(container.getDepartureTransportType());
+        if (times == null) {
+            times = new TreeMap<>();
+            index.put(container.getDepartureTransportType(), times);
+        }
+        ArrayDeque<Container> containers = times.get(container.getDepartureTime());
+        if (containers == null) {
+            containers = new ArrayDeque<>();
+            times.put(container.getDepartureTime(), containers);
+        }
+        containers.addLast(container);
+        size++;
+    }
+
+    /**
+     * Remove a container from the index.
+     *
+     * @param container Container that has left the storage.
+     * @return Whether the container was in the index.
+     */
+    public boolean remove(Container container) {
+        TreeMap<Long, ArrayDeque<Container>> times = index.get(container.getDepartureTransportType());
+        if (times == null) {
+            return false;
+        }
+        ArrayDeque<Container> containers = times.get(container.getDepartureTime());
+        if (containers == null || !containers.remove(container)) {
+            return false;
+        }
+        if (containers.isEmpty()) {
+            times.remove(container.getDepartureTime());
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Find the containers that leave first by a type of transport, without removing them.
+     *
+     * @param transportType Departure transport type, e.g. "trein".
+     * @param before        Only containers that depart before this time (epoch milliseconds) are returned.
+     * @param limit         Maximum amount of containers to return.
+     * @return Containers in order of departure.
+     */
+    public List<Container> nextDepartures(String transportType, long before, int limit) {
+        List<Container> result = new ArrayList<>();
+        TreeMap<Long, ArrayDeque<Container>> times = index.get(transportType);
+        if (times == null || limit <= 0) {
+            return result;
+        }
+        for (ArrayDeque<Container> containers : times.headMap(before, false).values()) {
+            for (Container container : containers) {
+                result.add(container);
+                if (result.size() == limit) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove and return the containers that leave first by a type of transport.
+     *
+     * @param transportType Departure transport type, e.g. "trein".
+     * @param before        Only containers that depart before this time (epoch milliseconds) are returned.
+     * @param limit         Maximum amount of containers to return.
+     * @return Containers in order of departure.
+     */
+    public List<Container> pollDepartures(String transportType, long before, int limit) {
+        List<Container> result = new ArrayList<>();
+        TreeMap<Long, ArrayDeque<Container>> times = index.get(transportType);
+        if (times == null || limit <= 0) {
+            return result;
+        }
+        Iterator<ArrayDeque<Container>> iterator = times.headMap(before, false).values().iterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            ArrayDeque<Container> containers = iterator.next();
+            while (!containers.isEmpty() && result.size() < limit) {
+                result.add(containers.pollFirst());
+                size--;
+            }
+            if (containers.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the container that departs first, regardless of transport type.
+     *
+     * @return The first departing container, or null if the index is empty.
+     */
+    public Container first() {
+        Container first = null;
+        for (TreeMap<Long, ArrayDeque<Container>> times : index.values()) {
+            Map.Entry<Long, ArrayDeque<Container>> entry = times.firstEntry();
+            if (entry != null && (first == null || entry.getKey() < first.getDepartureTime())) {
+                first = entry.getValue().peekFirst();
+            }
+        }
+        return first;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
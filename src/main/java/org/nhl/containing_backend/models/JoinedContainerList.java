@@ -0,0 +1,72 @@
+package org.nhl.containing_backend.models;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only view of several container lists one after another. The lists are not copied, so lazily materialised
+ * lists stay lazy.
+ */
+public class JoinedContainerList extends AbstractList<Container> implements ArrivalTimes {
+
+    private final List<List<Container>> parts;
+    /**
+     * Index of the first container of every part, followed by the total size.
+     */
+    private final int[] starts;
+
+    /**
+     * @param parts Lists to join, in order. Changes to their sizes are not picked up.
+     */
+    public JoinedContainerList(List<List<Container>> parts) {
+        this.parts = new ArrayList<>(parts);
+        this.starts = new int[parts.size() + 1];
+        for (int i = 0; i < parts.size(); i++) {
+            starts[i + 1] = starts[i] + parts.get(i).size();
+        }
+    }
+
+    @Override
+    public Container get(int index) {
+        int part = part(index);
+        return parts.get(part).get(index - starts[part]);
+    }
+
+    @Override
+    public long arrivalTime(int index) {
+        int part = part(index);
+        return arrivalTime(parts.get(part), index - starts[part]);
+    }
+
+    @Override
+    public int size() {
+        return starts[parts.size()];
+    }
+
+    /**
+     * @return Arrival time of a container of any list, without materialising it if the list knows its arrival times.
+     */
+    static long arrivalTime(List<Container> containers, int index) {
+        if (containers instanceof ArrivalTimes) {
+            return ((ArrivalTimes) containers).arrivalTime(index);
+        }
+        return containers.get(index).getArrivalTime();
+    }
+
+    private int part(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        int part = Arrays.binarySearch(starts, index);
+        if (part < 0) {
+            return -part - 2;
+        }
+        // Skip empty parts that start at the same index.
+        while (starts[part + 1] == index) {
+            part++;
+        }
+        return part;
+    }
+}
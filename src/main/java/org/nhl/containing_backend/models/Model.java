@@ -17,7 +17,8 @@ import org.nhl.containing_backend.cranes.TruckCrane;
  */
 public class Model {
 
-    private List<Container> containerPool;
+    private ArrivalQueue containerPool;
+    private DepartureIndex departureIndex;
     private List<Agv> agvs;
     private List<Transporter> transporters;
     private HashMap<String, Transporter[]> depots;
@@ -32,7 +33,8 @@ public class Model {
     private List<Float> agvParkingY;
 
     public Model() {
-        containerPool = new ArrayList<>();
+        containerPool = new ArrivalQueue();
+        departureIndex = new DepartureIndex();
         agvs = new ArrayList<>();
         transporters = new ArrayList<>();
         depots = new HashMap<>();
@@ -246,10 +248,20 @@ public class Model {
         }
     }
 
-    public List<Container> getContainerPool() {
+    /**
+     * @return Containers that have yet to arrive, ordered by arrival time.
+     */
+    public ArrivalQueue getContainerPool() {
         return containerPool;
     }
 
+    /**
+     * @return Containers in storage, indexed on departure.
+     */
+    public DepartureIndex getDepartureIndex() {
+        return departureIndex;
+    }
+
     public List<Agv> getAgvs() {
         return agvs;
     }
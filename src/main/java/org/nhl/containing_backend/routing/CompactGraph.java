@@ -0,0 +1,87 @@
+package org.nhl.containing_backend.routing;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Immutable waypoint graph in compressed sparse row form.
+ * <p/>
+ * The outgoing edges of waypoint v are the edges firstEdge(v) up to, but not including, endEdge(v). Targets and
+ * weights are kept in primitive arrays, so searches over the graph do not box or allocate.
+ */
+public class CompactGraph {
+
+    final int[] offsets;
+    final int[] targets;
+    final double[] weights;
+    private final String[] names;
+    private final HashMap<String, Integer> indices = new HashMap<>();
+
+    /**
+     * @param graph Graph to copy. Later changes to the graph are not reflected in the copy.
+     */
+    public CompactGraph(WaypointGraph graph) {
+        int size = graph.size();
+        List<WaypointGraph.Edge> edges = graph.getEdges();
+        names = new String[size];
+        offsets = new int[size + 1];
+        targets = new int[edges.size()];
+        weights = new double[edges.size()];
+
+        for (int i = 0; i < size; i++) {
+            names[i] = graph.nameOf(i);
+            indices.put(names[i], i);
+        }
+
+        // Counting sort of the edges on their source, keeping the order in which they were added.
+        for (WaypointGraph.Edge edge : edges) {
+            offsets[edge.getFrom() + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] fill = new int[size];
+        for (WaypointGraph.Edge edge : edges) {
+            int slot = offsets[edge.getFrom()] + fill[edge.getFrom()]++;
+            targets[slot] = edge.getTo();
+            weights[slot] = edge.getCost();
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @param name Name of a waypoint.
+     * @return Index of the waypoint, or -1 if there is no waypoint by that name.
+     */
+    public int indexOf(String name) {
+        Integer index = name == null ? null : indices.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public String nameOf(int vertex) {
+        return names[vertex];
+    }
+
+    public int firstEdge(int vertex) {
+        return offsets[vertex];
+    }
+
+    public int endEdge(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public double weight(int edge) {
+        return weights[edge];
+    }
+}
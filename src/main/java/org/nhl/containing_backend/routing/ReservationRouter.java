@@ -0,0 +1,248 @@
+package org.nhl.containing_backend.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Router that keeps concurrent AGV routes apart by reserving waypoints and edges in time.
+ * <p/>
+ * Time is divided into slots. A route reserves every slot in which it drives on a road and the slot in which it arrives
+ * at each waypoint. Both directions of a road are a single resource, so two AGVs never meet head-on. New routes are
+ * found with A* over the time-expanded graph of (waypoint, slot) pairs, skipping reservations of other AGVs, using the
+ * static shortest distances as heuristic. A route may be longer than the static shortest route by at most a detour
+ * margin; if no such route is free, the static route is used. The simulator cannot be told to wait at a waypoint, so
+ * routes never wait.
+ * <p/>
+ * Every AGV holds the reservations of its last route only, so the amount of reservations is bounded by the amount of
+ * AGVs times the length of their routes.
+ */
+public class ReservationRouter implements Router {
+
+    /**
+     * Default AGV speed in graph units per second.
+     */
+    public static final double DEFAULT_SPEED = 5.5;
+    /**
+     * Default length of a time slot in milliseconds.
+     */
+    public static final long DEFAULT_SLOT_LENGTH = 1000;
+
+    private final CompactGraph graph;
+    private final RouteTable table;
+    private final double speed;
+    private final long slotLength;
+    private final int[] durations;
+    /**
+     * Road of every edge; the edges of both directions between two waypoints share a road.
+     */
+    private final int[] roads;
+    private final int roadCount;
+    private final HashMap<Long, Integer> reservations = new HashMap<>();
+    private final HashMap<Integer, List<Long>> reservationsPerAgent = new HashMap<>();
+
+    public ReservationRouter(WaypointGraph graph) {
+        this(new CompactGraph(graph), DEFAULT_SPEED, DEFAULT_SLOT_LENGTH);
+    }
+
+    /**
+     * @param graph      Graph to route over.
+     * @param speed      Speed of the AGVs in graph units per second.
+     * @param slotLength Length of a time slot in milliseconds.
+     */
+    public ReservationRouter(CompactGraph graph, double speed, long slotLength) {
+        this.graph = graph;
+        this.table = new RouteTable(graph);
+        this.speed = speed;
+        this.slotLength = slotLength;
+        this.durations = new int[graph.edgeCount()];
+        this.roads = new int[graph.edgeCount()];
+        HashMap<Long, Integer> roadIndices = new HashMap<>();
+        for (int vertex = 0; vertex < graph.size(); vertex++) {
+            for (int edge = graph.firstEdge(vertex); edge < graph.endEdge(vertex); edge++) {
+                durations[edge] = Math.max(1, (int) Math.ceil(slots(graph.weight(edge))));
+                int target = graph.target(edge);
+                long pair = (long) Math.min(vertex, target) * graph.size() + Math.max(vertex, target);
+                Integer road = roadIndices.get(pair);
+                if (road == null) {
+                    road = roadIndices.size();
+                    roadIndices.put(pair, road);
+                }
+                roads[edge] = road;
+            }
+        }
+        this.roadCount = roadIndices.size();
+    }
+
+    @Override
+    public Route route(int agent, String from, String to, long departure) {
+        release(agent);
+        Route fallback = table.find(from, to);
+        if (fallback.isEmpty()) {
+            return fallback;
+        }
+
+        long start = departure / slotLength;
+        int source = fallback.waypoint(0);
+        int target = fallback.waypoint(fallback.length() - 1);
+        int staticSlots = 0;
+        for (int i = 1; i < fallback.length(); i++) {
+            staticSlots += durations[edge(fallback.waypoint(i - 1), fallback.waypoint(i))];
+        }
+        int maxSlots = staticSlots + staticSlots / 2 + 10;
+
+        PriorityQueue<Node> open = new PriorityQueue<>();
+        HashSet<Long> closed = new HashSet<>();
+        open.add(new Node(source, 0, -1, null, heuristic(source, target)));
+        while (!open.isEmpty()) {
+            Node node = open.poll();
+            if (node.vertex == target) {
+                return reserve(agent, start, node);
+            }
+            if (!closed.add((long) node.slot * graph.size() + node.vertex)) {
+                continue;
+            }
+            for (int edge = graph.firstEdge(node.vertex); edge < graph.endEdge(node.vertex); edge++) {
+                int next = graph.target(edge);
+                int arrival = node.slot + durations[edge];
+                int estimate = arrival + heuristic(next, target);
+                if (estimate > maxSlots
+                        || roadReserved(edge, start, node.slot, agent)
+                        || reserved(vertexKey(next, start, arrival), agent)) {
+                    continue;
+                }
+                open.add(new Node(next, arrival, edge, node, estimate));
+            }
+        }
+
+        // No free route within the detour margin; drive the static route and claim what is still free.
+        Node node = new Node(source, 0, -1, null, 0);
+        for (int i = 1; i < fallback.length(); i++) {
+            int edge = edge(fallback.waypoint(i - 1), fallback.waypoint(i));
+            node = new Node(fallback.waypoint(i), node.slot + durations[edge], edge, node, 0);
+        }
+        return reserve(agent, start, node);
+    }
+
+    /**
+     * Drop all reservations of an AGV.
+     *
+     * @param agent Id of the AGV.
+     */
+    public void release(int agent) {
+        List<Long> keys = reservationsPerAgent.remove(agent);
+        if (keys != null) {
+            for (Long key : keys) {
+                reservations.remove(key);
+            }
+        }
+    }
+
+    /**
+     * @return Amount of reserved waypoint and road slots.
+     */
+    public int reservationCount() {
+        return reservations.size();
+    }
+
+    private Route reserve(int agent, long start, Node last) {
+        int length = 0;
+        for (Node node = last; node != null; node = node.parent) {
+            length++;
+        }
+        int[] waypoints = new int[length];
+        double cost = 0;
+        List<Long> keys = new ArrayList<>();
+        for (Node node = last; node != null; node = node.parent) {
+            waypoints[--length] = node.vertex;
+            if (node.parent != null) {
+                cost += graph.weight(node.edge);
+                claim(agent, keys, vertexKey(node.vertex, start, node.slot));
+                for (int slot = node.parent.slot; slot < node.slot; slot++) {
+                    claim(agent, keys, roadKey(node.edge, start, slot));
+                }
+            }
+        }
+        reservationsPerAgent.put(agent, keys);
+        return new Route(graph, waypoints, cost);
+    }
+
+    private void claim(int agent, List<Long> keys, long key) {
+        if (!reservations.containsKey(key)) {
+            reservations.put(key, agent);
+            keys.add(key);
+        }
+    }
+
+    private boolean reserved(long key, int agent) {
+        Integer holder = reservations.get(key);
+        return holder != null && holder != agent;
+    }
+
+    /**
+     * @param slot Slot in which the edge is entered, relative to the departure.
+     * @return Whether another AGV is on the road of the edge in any slot it takes to drive it.
+     */
+    private boolean roadReserved(int edge, long start, int slot, int agent) {
+        for (int i = slot; i < slot + durations[edge]; i++) {
+            if (reserved(roadKey(edge, start, i), agent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long vertexKey(int vertex, long start, int slot) {
+        return (start + slot) * (graph.size() + roadCount) + vertex;
+    }
+
+    private long roadKey(int edge, long start, int slot) {
+        return (start + slot) * (graph.size() + roadCount) + graph.size() + roads[edge];
+    }
+
+    private int heuristic(int vertex, int target) {
+        return (int) Math.floor(slots(table.cost(vertex, target)));
+    }
+
+    private double slots(double distance) {
+        return distance / speed * 1000 / slotLength;
+    }
+
+    private int edge(int from, int to) {
+        int best = -1;
+        for (int edge = graph.firstEdge(from); edge < graph.endEdge(from); edge++) {
+            if (graph.target(edge) == to && (best == -1 || graph.weight(edge) < graph.weight(best))) {
+                best = edge;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * State in the time-expanded graph: a waypoint reached in a slot, relative to the departure.
+     */
+    private static class Node implements Comparable<Node> {
+
+        private final int vertex;
+        private final int slot;
+        private final int edge;
+        private final Node parent;
+        private final int estimate;
+
+        Node(int vertex, int slot, int edge, Node parent, int estimate) {
+            this.vertex = vertex;
+            this.slot = slot;
+            this.edge = edge;
+            this.parent = parent;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            return estimate != other.estimate ? Integer.compare(estimate, other.estimate)
+                    : Integer.compare(other.slot, slot);
+        }
+    }
+}
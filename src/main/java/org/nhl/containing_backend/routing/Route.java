@@ -0,0 +1,79 @@
+package org.nhl.containing_backend.routing;
+
+/**
+ * Immutable route along a sequence of waypoints.
+ * <p/>
+ * The waypoints are kept as indices into the graph the route was found in; names are only looked up when the route
+ * is written out for the simulator.
+ */
+public class Route {
+
+    /**
+     * Route without waypoints, used when no route could be found.
+     */
+    public static final Route NONE = new Route(null, new int[0], Double.POSITIVE_INFINITY);
+
+    private final CompactGraph graph;
+    private final int[] waypoints;
+    private final double cost;
+
+    /**
+     * @param graph     Graph the waypoint indices refer to.
+     * @param waypoints Indices of the waypoints along the route, including both ends. Not copied.
+     * @param cost      Total length of the route.
+     */
+    public Route(CompactGraph graph, int[] waypoints, double cost) {
+        this.graph = graph;
+        this.waypoints = waypoints;
+        this.cost = cost;
+    }
+
+    public int length() {
+        return waypoints.length;
+    }
+
+    public boolean isEmpty() {
+        return waypoints.length == 0;
+    }
+
+    /**
+     * @param i Position on the route.
+     * @return Index of the waypoint at the provided position.
+     */
+    public int waypoint(int i) {
+        return waypoints[i];
+    }
+
+    /**
+     * @param i Position on the route.
+     * @return Name of the waypoint at the provided position.
+     */
+    public String name(int i) {
+        return graph.nameOf(waypoints[i]);
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Write the route in the notation of the simulator, e.g. "P, E, I".
+     *
+     * @param builder Builder to append to.
+     * @return The provided builder.
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        for (int i = 0; i < waypoints.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(graph.nameOf(waypoints[i]));
+        }
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+}
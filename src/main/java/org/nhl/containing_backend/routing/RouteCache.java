@@ -0,0 +1,105 @@
+package org.nhl.containing_backend.routing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Router that searches shortest routes on demand and keeps the most recently used ones.
+ * <p/>
+ * Unlike a RouteTable this does not compute every route up front, so it suits large or changing graphs. The cache is
+ * bounded and evicts the least recently used route. When the version of the graph changes, the graph is copied again
+ * and all cached routes are dropped.
+ */
+public class RouteCache implements Router {
+
+    private final WaypointGraph graph;
+    private final LinkedHashMap<Long, Route> routes;
+    private CompactGraph compactGraph;
+    private ShortestPathSearch search;
+    private int[] buffer;
+    private int version = -1;
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    /**
+     * @param graph    Graph to route over. Edits to the graph are picked up on the next query.
+     * @param capacity Maximum amount of cached routes.
+     */
+    public RouteCache(WaypointGraph graph, final int capacity) {
+        this.graph = graph;
+        this.routes = new LinkedHashMap<Long, Route>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Route> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public Route route(int agent, String from, String to, long departure) {
+        return find(from, to);
+    }
+
+    /**
+     * Find the shortest route between two named waypoints.
+     *
+     * @param from Name of the first waypoint.
+     * @param to   Name of the last waypoint.
+     * @return The route, or Route.NONE if either waypoint is unknown or there is no route.
+     */
+    public synchronized Route find(String from, String to) {
+        if (version != graph.getVersion()) {
+            if (version != -1) {
+                invalidations++;
+            }
+            routes.clear();
+            compactGraph = new CompactGraph(graph);
+            search = new ShortestPathSearch(compactGraph);
+            buffer = new int[compactGraph.size()];
+            version = graph.getVersion();
+        }
+
+        int fromIndex = compactGraph.indexOf(from);
+        int toIndex = compactGraph.indexOf(to);
+        if (fromIndex == -1 || toIndex == -1) {
+            return Route.NONE;
+        }
+        Long key = (long) fromIndex * compactGraph.size() + toIndex;
+        Route route = routes.get(key);
+        if (route != null) {
+            hits++;
+            return route;
+        }
+
+        misses++;
+        route = Route.NONE;
+        if (search.search(fromIndex, toIndex)) {
+            int length = search.path(toIndex, buffer);
+            int[] waypoints = new int[length];
+            System.arraycopy(buffer, 0, waypoints, 0, length);
+            route = new Route(compactGraph, waypoints, search.distance(toIndex));
+        }
+        routes.put(key, route);
+        return route;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return How often the cache was dropped because the graph changed.
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized int size() {
+        return routes.size();
+    }
+}
@@ -0,0 +1,113 @@
+package org.nhl.containing_backend.routing;
+
+/**
+ * Shortest routes between all pairs of waypoints, computed once when the table is created.
+ * <p/>
+ * The table runs one ShortestPathSearch per waypoint and keeps the resulting distances and shortest-route trees in
+ * int-indexed arrays. A Route object is kept for every pair of waypoints, so answering a query is a lookup. Memory
+ * grows with the square of the amount of waypoints; for large layouts query a ShortestPathSearch directly instead.
+ */
+public class RouteTable {
+
+    private static final int NONE = -1;
+
+    private final CompactGraph graph;
+    private final int size;
+    private final double[] distances;
+    private final int[] previous;
+    private final Route[] routes;
+
+    /**
+     * @param graph Graph to compute the routes of. Later changes to the graph are not reflected in the table.
+     */
+    public RouteTable(WaypointGraph graph) {
+        this(new CompactGraph(graph));
+    }
+
+    /**
+     * @param graph Graph to compute the routes of.
+     */
+    public RouteTable(CompactGraph graph) {
+        this.graph = graph;
+        this.size = graph.size();
+        this.distances = new double[size * size];
+        this.previous = new int[size * size];
+        this.routes = new Route[size * size];
+
+        ShortestPathSearch search = new ShortestPathSearch(graph);
+        for (int from = 0; from < size; from++) {
+            search.search(from, NONE);
+            for (int to = 0; to < size; to++) {
+                distances[from * size + to] = search.distance(to);
+                previous[from * size + to] = search.reached(to) ? search.previous(to) : NONE;
+            }
+        }
+
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                int[] waypoints = route(from, to);
+                routes[from * size + to] = waypoints == null ? Route.NONE
+                        : new Route(graph, waypoints, distances[from * size + to]);
+            }
+        }
+    }
+
+    /**
+     * Find the shortest route between two waypoints.
+     *
+     * @param from Index of the first waypoint.
+     * @param to   Index of the last waypoint.
+     * @return Indices of the waypoints along the route including both ends, or null if there is no route.
+     */
+    public int[] route(int from, int to) {
+        if (distances[from * size + to] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        int length = 1;
+        for (int at = to; at != from; at = previous[from * size + at]) {
+            length++;
+        }
+        int[] route = new int[length];
+        for (int i = length - 1, at = to; i >= 0; i--, at = previous[from * size + at]) {
+            route[i] = at;
+        }
+        return route;
+    }
+
+    /**
+     * @param from Index of the first waypoint.
+     * @param to   Index of the last waypoint.
+     * @return Length of the shortest route, or Double.POSITIVE_INFINITY if there is no route.
+     */
+    public double cost(int from, int to) {
+        return distances[from * size + to];
+    }
+
+    /**
+     * Find the shortest route between two named waypoints.
+     *
+     * @param from Name of the first waypoint.
+     * @param to   Name of the last waypoint.
+     * @return The route, or Route.NONE if either waypoint is unknown or there is no route.
+     */
+    public Route find(String from, String to) {
+        int fromIndex = graph.indexOf(from);
+        int toIndex = graph.indexOf(to);
+        if (fromIndex == NONE || toIndex == NONE) {
+            return Route.NONE;
+        }
+        return routes[fromIndex * size + toIndex];
+    }
+
+    /**
+     * Find the shortest route between two named waypoints.
+     *
+     * @param from Name of the first waypoint.
+     * @param to   Name of the last waypoint.
+     * @return Route in the notation of the simulator, e.g. "P, E, I". Empty if either waypoint is unknown or there is
+     * no route.
+     */
+    public String path(String from, String to) {
+        return find(from, to).toString();
+    }
+}
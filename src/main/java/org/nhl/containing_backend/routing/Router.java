@@ -0,0 +1,18 @@
+package org.nhl.containing_backend.routing;
+
+/**
+ * Finds the routes AGVs drive between waypoints.
+ */
+public interface Router {
+
+    /**
+     * Find a route for an AGV. A new route for an AGV replaces the route it was given before.
+     *
+     * @param agent     Id of the AGV that is going to drive the route.
+     * @param from      Name of the waypoint where the route starts.
+     * @param to        Name of the waypoint where the route ends.
+     * @param departure Time at which the AGV leaves, in epoch milliseconds.
+     * @return The route, or Route.NONE if either waypoint is unknown or there is no route.
+     */
+    Route route(int agent, String from, String to, long departure);
+}
@@ -0,0 +1,182 @@
+package org.nhl.containing_backend.routing;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra search over a CompactGraph with buffers that are allocated once and reused by every search.
+ * <p/>
+ * The open set is an indexed binary heap that supports decreasing the distance of a waypoint in place. Instead of
+ * clearing the buffers between searches, every search gets a new stamp and values written by earlier searches are
+ * ignored, so a search only touches the waypoints it reaches. An instance is not thread-safe.
+ */
+public class ShortestPathSearch {
+
+    private static final int SETTLED = -1;
+
+    private final CompactGraph graph;
+    private final double[] distances;
+    private final int[] previous;
+    private final int[] positions;
+    private final int[] stamps;
+    private final int[] heap;
+    private int heapSize;
+    private int stamp;
+    private int source = -1;
+
+    public ShortestPathSearch(CompactGraph graph) {
+        this.graph = graph;
+        int size = graph.size();
+        distances = new double[size];
+        previous = new int[size];
+        positions = new int[size];
+        stamps = new int[size];
+        heap = new int[size];
+    }
+
+    /**
+     * Search the shortest routes from a waypoint. The search stops as soon as the target is reached.
+     *
+     * @param source Index of the waypoint to start from.
+     * @param target Index of the waypoint to find, or -1 to find the routes to all reachable waypoints.
+     * @return Whether the target was reached. Always true when searching all waypoints.
+     */
+    public boolean search(int source, int target) {
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        this.source = source;
+        heapSize = 0;
+        open(source, 0, -1);
+
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        double[] weights = graph.weights;
+        while (heapSize > 0) {
+            int vertex = poll();
+            if (vertex == target) {
+                return true;
+            }
+            double distance = distances[vertex];
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+                int to = targets[edge];
+                double candidate = distance + weights[edge];
+                if (stamps[to] != stamp) {
+                    open(to, candidate, vertex);
+                } else if (positions[to] != SETTLED && candidate < distances[to]) {
+                    distances[to] = candidate;
+                    previous[to] = vertex;
+                    siftUp(positions[to]);
+                }
+            }
+        }
+        return target < 0;
+    }
+
+    /**
+     * @param vertex Index of a waypoint.
+     * @return Whether the last search found the shortest route to the waypoint.
+     */
+    public boolean reached(int vertex) {
+        return stamps[vertex] == stamp && positions[vertex] == SETTLED;
+    }
+
+    /**
+     * @param vertex Index of a waypoint.
+     * @return Length of the shortest route found by the last search, or Double.POSITIVE_INFINITY if it was not
+     * reached.
+     */
+    public double distance(int vertex) {
+        return reached(vertex) ? distances[vertex] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param vertex Index of a waypoint.
+     * @return Waypoint before the provided waypoint on its shortest route, or -1 for the source or a waypoint that
+     * was not reached.
+     */
+    public int previous(int vertex) {
+        return reached(vertex) ? previous[vertex] : -1;
+    }
+
+    /**
+     * Copy the shortest route to a waypoint found by the last search.
+     *
+     * @param target Index of the last waypoint.
+     * @param route  Array the route is written to, starting at the source. Must be able to hold the route; the size
+     *               of the graph always suffices.
+     * @return Amount of waypoints on the route, or -1 if the target was not reached.
+     */
+    public int path(int target, int[] route) {
+        if (!reached(target)) {
+            return -1;
+        }
+        int length = 1;
+        for (int at = target; at != source; at = previous[at]) {
+            length++;
+        }
+        for (int i = length - 1, at = target; i >= 0; i--, at = previous[at]) {
+            route[i] = at;
+        }
+        return length;
+    }
+
+    private void open(int vertex, double distance, int from) {
+        stamps[vertex] = stamp;
+        distances[vertex] = distance;
+        previous[vertex] = from;
+        heap[heapSize] = vertex;
+        positions[vertex] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int poll() {
+        int first = heap[0];
+        positions[first] = SETTLED;
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return first;
+    }
+
+    private void siftUp(int position) {
+        int vertex = heap[position];
+        double distance = distances[vertex];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (distances[heap[parent]] <= distance) {
+                break;
+            }
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+
+    private void siftDown(int position) {
+        int vertex = heap[position];
+        double distance = distances[vertex];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && distances[heap[child + 1]] < distances[heap[child]]) {
+                child++;
+            }
+            if (distances[heap[child]] >= distance) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+}
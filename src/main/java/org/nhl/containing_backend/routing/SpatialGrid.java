@@ -0,0 +1,110 @@
+package org.nhl.containing_backend.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Uniform grid of 2D points for nearest-point lookups.
+ * <p/>
+ * Points are bucketed into square cells. A lookup only visits the cells in rings around the queried position until no
+ * closer point can exist, so its cost depends on the density of the points rather than on their amount.
+ */
+class SpatialGrid {
+
+    private final float cellSize;
+    private final HashMap<Long, List<Integer>> cells = new HashMap<>();
+    private final List<float[]> points = new ArrayList<>();
+    private final List<Integer> values = new ArrayList<>();
+    private int minCellX = Integer.MAX_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    /**
+     * @param cellSize Width and height of a cell.
+     */
+    public SpatialGrid(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * @param x     X coordinate of the point.
+     * @param y     Y coordinate of the point.
+     * @param value Value returned when the point is the nearest.
+     */
+    public void add(float x, float y, int value) {
+        int cellX = cell(x);
+        int cellY = cell(y);
+        minCellX = Math.min(minCellX, cellX);
+        minCellY = Math.min(minCellY, cellY);
+        maxCellX = Math.max(maxCellX, cellX);
+        maxCellY = Math.max(maxCellY, cellY);
+        long key = key(cellX, cellY);
+        List<Integer> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>();
+            cells.put(key, cell);
+        }
+        cell.add(points.size());
+        points.add(new float[]{x, y});
+        values.add(value);
+    }
+
+    /**
+     * Find the value of the point nearest to a position.
+     *
+     * @param x           X coordinate of the position.
+     * @param y           Y coordinate of the position.
+     * @param maxDistance Points further away than this are ignored.
+     * @return Value of the nearest point, or -1 if there is no point within the distance.
+     */
+    public int nearest(float x, float y, float maxDistance) {
+        if (points.isEmpty()) {
+            return -1;
+        }
+        int cellX = cell(x);
+        int cellY = cell(y);
+        // Rings beyond the outermost occupied cell are empty.
+        long extent = Math.max(Math.max((long) cellX - minCellX, (long) maxCellX - cellX),
+                Math.max((long) cellY - minCellY, (long) maxCellY - cellY));
+        int maxRing = (int) Math.min((long) Math.ceil(maxDistance / cellSize), extent);
+        int best = -1;
+        double bestDistance = (double) maxDistance * maxDistance;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every point in this ring or further is at least (ring - 1) cells away.
+            double ringDistance = Math.max(0, ring - 1) * (double) cellSize;
+            if (best != -1 && ringDistance * ringDistance > bestDistance) {
+                break;
+            }
+            for (int i = -ring; i <= ring; i++) {
+                // Only the outer columns of the ring are full; the others only have their top and bottom cell.
+                int step = Math.abs(i) == ring ? 1 : 2 * ring;
+                for (int j = -ring; j <= ring; j += step) {
+                    List<Integer> cell = cells.get(key(cellX + i, cellY + j));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int point : cell) {
+                        double dx = points.get(point)[0] - x;
+                        double dy = points.get(point)[1] - y;
+                        double distance = dx * dx + dy * dy;
+                        if (distance <= bestDistance) {
+                            bestDistance = distance;
+                            best = point;
+                        }
+                    }
+                }
+            }
+        }
+        return best == -1 ? -1 : values.get(best);
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+}
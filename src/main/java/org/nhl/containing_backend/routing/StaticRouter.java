@@ -0,0 +1,18 @@
+package org.nhl.containing_backend.routing;
+
+/**
+ * Router that gives every AGV the shortest route, regardless of the other AGVs.
+ */
+public class StaticRouter implements Router {
+
+    private final RouteTable table;
+
+    public StaticRouter(RouteTable table) {
+        this.table = table;
+    }
+
+    @Override
+    public Route route(int agent, String from, String to, long departure) {
+        return table.find(from, to);
+    }
+}
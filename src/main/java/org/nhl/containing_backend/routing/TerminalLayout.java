@@ -0,0 +1,168 @@
+package org.nhl.containing_backend.routing;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+
+/**
+ * Layout of a container terminal: the waypoint graph and the places AGVs start from and drive to.
+ * <p/>
+ * Layouts are read from XML files such as the terminal.xml resource. Parking platforms are kept in a spatial grid, so
+ * the waypoint an empty AGV starts from is found by a nearest-neighbour lookup on its position.
+ */
+public class TerminalLayout {
+
+    private static final String RESOURCE = "/terminal.xml";
+    private static final float CELL_SIZE = 64f;
+    private static final float DEFAULT_PARKING_RADIUS = 150f;
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+    private final WaypointGraph graph = new WaypointGraph();
+    private final SpatialGrid parking = new SpatialGrid(CELL_SIZE);
+    private final HashMap<String, String> transportWaypoints = new HashMap<>();
+    private final HashMap<String, String> craneWaypoints = new HashMap<>();
+    private float parkingRadius = DEFAULT_PARKING_RADIUS;
+
+    /**
+     * Reads the layout of the terminal from the classpath.
+     *
+     * @return The layout of the terminal.
+     */
+    public static TerminalLayout terminal() {
+        try (InputStream in = TerminalLayout.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Unable to find layout resource " + RESOURCE);
+            }
+            return read(in);
+        } catch (IOException | XMLStreamException e) {
+            throw new IllegalStateException("Unable to read layout resource " + RESOURCE, e);
+        }
+    }
+
+    /**
+     * Reads a layout from a file.
+     *
+     * @param file Layout XML file.
+     * @return The layout.
+     * @throws IOException If the file cannot be read or is not a valid layout.
+     */
+    public static TerminalLayout load(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return read(in);
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid layout file " + file, e);
+        }
+    }
+
+    /**
+     * Reads a layout from XML.
+     *
+     * @param in Layout XML.
+     * @return The layout.
+     * @throws XMLStreamException If the XML is malformed or contains unknown elements or missing attributes.
+     */
+    public static TerminalLayout read(InputStream in) throws XMLStreamException {
+        TerminalLayout layout = new TerminalLayout();
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                switch (reader.getLocalName()) {
+                    case "layout":
+                        String radius = reader.getAttributeValue(null, "parkingRadius");
+                        if (radius != null) {
+                            layout.parkingRadius = parseFloat(reader, radius);
+                        }
+                        break;
+                    case "waypoint":
+                        layout.graph.addWaypoint(attribute(reader, "name"));
+                        break;
+                    case "road":
+                        layout.graph.connectBoth(attribute(reader, "a"), attribute(reader, "b"),
+                                parseFloat(reader, attribute(reader, "cost")));
+                        break;
+                    case "edge":
+                        layout.graph.connect(attribute(reader, "from"), attribute(reader, "to"),
+                                parseFloat(reader, attribute(reader, "cost")));
+                        break;
+                    case "parking":
+                        layout.parking.add(parseFloat(reader, attribute(reader, "x")),
+                                parseFloat(reader, attribute(reader, "y")),
+                                layout.graph.addWaypoint(attribute(reader, "waypoint")));
+                        break;
+                    case "transport":
+                        layout.transportWaypoints.put(attribute(reader, "type"), attribute(reader, "waypoint"));
+                        break;
+                    case "crane":
+                        layout.craneWaypoints.put(attribute(reader, "type"), attribute(reader, "waypoint"));
+                        break;
+                    default:
+                        throw new XMLStreamException("Unknown layout element " + reader.getLocalName(),
+                                reader.getLocation());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return layout;
+    }
+
+    public WaypointGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Find the waypoint an empty AGV starts from.
+     *
+     * @param x X coordinate of the AGV.
+     * @param y Y coordinate of the AGV.
+     * @return Name of the waypoint of the nearest parking platform, or an empty string if the AGV is not near one.
+     */
+    public String parkingWaypoint(float x, float y) {
+        int waypoint = parking.nearest(x, y, parkingRadius);
+        return waypoint == -1 ? "" : graph.nameOf(waypoint);
+    }
+
+    /**
+     * @param transportType Arrival transport type of the container on an AGV.
+     * @return Name of the waypoint the loaded AGV starts from, or an empty string if the type is unknown.
+     */
+    public String transportWaypoint(String transportType) {
+        String waypoint = transportWaypoints.get(transportType);
+        return waypoint == null ? "" : waypoint;
+    }
+
+    /**
+     * @param craneType Type of a crane, e.g. "TrainCrane".
+     * @return Name of the waypoint in front of the crane, or an empty string if the type is unknown.
+     */
+    public String craneWaypoint(String craneType) {
+        String waypoint = craneWaypoints.get(craneType);
+        return waypoint == null ? "" : waypoint;
+    }
+
+    private static String attribute(XMLStreamReader reader, String name) throws XMLStreamException {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null) {
+            throw new XMLStreamException("Missing attribute " + name + " on " + reader.getLocalName(),
+                    reader.getLocation());
+        }
+        return value;
+    }
+
+    private static float parseFloat(XMLStreamReader reader, String value) throws XMLStreamException {
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new XMLStreamException("Invalid number " + value, reader.getLocation(), e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.nhl.containing_backend.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Directed, weighted graph of the waypoints AGVs drive along.
+ * <p/>
+ * Waypoints are identified by their name and numbered in the order in which they are added, so route engines can
+ * work with int-indexed arrays instead of strings. Every edit raises the version of the graph, so copies and cached
+ * routes can tell that they are out of date.
+ */
+public class WaypointGraph {
+
+    private final List<String> names = new ArrayList<>();
+    private final HashMap<String, Integer> indices = new HashMap<>();
+    private final List<Edge> edges = new ArrayList<>();
+    private int version;
+
+    /**
+     * Creates the waypoint graph of the container terminal.
+     *
+     * @return Graph with the waypoints of the terminal.xml layout.
+     */
+    public static WaypointGraph terminal() {
+        return TerminalLayout.terminal().getGraph();
+    }
+
+    /**
+     * Add a waypoint to the graph.
+     *
+     * @param name Name of the waypoint.
+     * @return Index of the waypoint. If the waypoint already exists, its existing index.
+     */
+    public int addWaypoint(String name) {
+        Integer index = indices.get(name);
+        if (index == null) {
+            index = names.size();
+            names.add(name);
+            indices.put(name, index);
+            version++;
+        }
+        return index;
+    }
+
+    /**
+     * Add a one-way edge between two waypoints, adding the waypoints when necessary.
+     *
+     * @param from Name of the waypoint where the edge starts.
+     * @param to   Name of the waypoint where the edge ends.
+     * @param cost Length of the edge.
+     */
+    public void connect(String from, String to, double cost) {
+        edges.add(new Edge(addWaypoint(from), addWaypoint(to), cost));
+        version++;
+    }
+
+    /**
+     * Add edges in both directions between two waypoints.
+     *
+     * @param a    Name of the first waypoint.
+     * @param b    Name of the second waypoint.
+     * @param cost Length of both edges.
+     */
+    public void connectBoth(String a, String b, double cost) {
+        connect(a, b, cost);
+        connect(b, a, cost);
+    }
+
+    /**
+     * @param name Name of a waypoint.
+     * @return Index of the waypoint, or -1 if there is no waypoint by that name.
+     */
+    public int indexOf(String name) {
+        Integer index = name == null ? null : indices.get(name);
+        return index == null ? -1 : index;
+    }
+
+    public String nameOf(int index) {
+        return names.get(index);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * @return Counter that is raised by every change to the graph.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public List<Edge> getEdges() {
+        return Collections.unmodifiableList(edges);
+    }
+
+    /**
+     * One-way connection between two waypoints.
+     */
+    public static class Edge {
+
+        private final int from;
+        private final int to;
+        private final double cost;
+
+        public Edge(int from, int to, double cost) {
+            this.from = from;
+            this.to = to;
+            this.cost = cost;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        public double getCost() {
+            return cost;
+        }
+    }
+}
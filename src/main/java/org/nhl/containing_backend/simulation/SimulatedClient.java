@@ -0,0 +1,157 @@
+package org.nhl.containing_backend.simulation;
+
+import org.nhl.containing_backend.communication.Connection;
+import org.nhl.containing_backend.communication.MessageListener;
+import org.nhl.containing_backend.communication.messages.Message;
+
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * In-process stand-in for the simulator, for running the controller without a viewer.
+ * <p/>
+ * Every message the controller sends is acknowledged after a modelled duration in simulation time, e.g. the time a
+ * crane needs to move a container. Acks are only delivered when the controller advances the clock, so the controller
+ * can jump from one pending ack to the next instead of waiting in real time.
+ */
+public class SimulatedClient implements Connection {
+
+    private final HashMap<String, Long> durations = new HashMap<>();
+    private final PriorityQueue<PendingAck> pending = new PriorityQueue<>();
+    private MessageListener messageListener;
+    private volatile boolean running;
+    private long now;
+    private long sequence;
+    private long messageCount;
+    private long ackCount;
+
+    public SimulatedClient() {
+        setDuration("Create", 0);
+        setDuration("SpeedMessage", 0);
+        setDuration("Arrive", 60 * 1000);
+        setDuration("Move", 2 * 60 * 1000);
+        setDuration("Crane", 90 * 1000);
+        setDuration("Depart", 60 * 1000);
+    }
+
+    /**
+     * Sets how long the simulator takes to carry out a type of message.
+     *
+     * @param element  Name of the element that follows the id of the message, e.g. "Crane".
+     * @param duration Duration in simulation milliseconds.
+     */
+    public void setDuration(String element, long duration) {
+        durations.put(element, duration);
+    }
+
+    @Override
+    public void run() {
+        running = true;
+    }
+
+    @Override
+    public boolean awaitConnection() {
+        return running;
+    }
+
+    /**
+     * Accepts a message of the controller and schedules its ack.
+     *
+     * @param message XML message, e.g. "&lt;id&gt;5&lt;/id&gt;&lt;Crane&gt;...".
+     */
+    @Override
+    public synchronized void writeMessage(String message) {
+        messageCount++;
+        int idStart = message.indexOf("<id>");
+        int idEnd = message.indexOf("</id>", idStart);
+        if (idStart == -1 || idEnd == -1) {
+            return;
+        }
+        String id = message.substring(idStart + "<id>".length(), idEnd);
+        int elementStart = idEnd + "</id>".length() + 1;
+        int elementEnd = message.indexOf('>', elementStart);
+        String element = elementEnd == -1 ? "" : message.substring(elementStart, elementEnd);
+
+        Long duration = durations.get(element);
+        long time = now + (duration == null ? 0 : duration);
+        pending.add(new PendingAck(time, sequence++, "<Simulation><id>" + id + "</id><OK/></Simulation>"));
+    }
+
+    @Override
+    public void send(Message message) {
+        writeMessage(message.generateXml());
+    }
+
+    /**
+     * @return Simulation time at which the next ack is due, or Long.MAX_VALUE if no message is pending.
+     */
+    public synchronized long nextAckTime() {
+        return pending.isEmpty() ? Long.MAX_VALUE : pending.peek().time;
+    }
+
+    /**
+     * Advances the clock of the client and delivers all acks that are due to the message listener.
+     *
+     * @param time Simulation time in epoch milliseconds.
+     * @return Amount of delivered acks.
+     */
+    public int advanceTo(long time) {
+        int count = 0;
+        while (true) {
+            PendingAck ack;
+            synchronized (this) {
+                now = Math.max(now, time);
+                if (pending.isEmpty() || pending.peek().time > now) {
+                    return count;
+                }
+                ack = pending.poll();
+                ackCount++;
+            }
+            count++;
+            if (messageListener != null) {
+                messageListener.messageReceived(ack.message);
+            }
+        }
+    }
+
+    @Override
+    public void setMessageListener(MessageListener messageListener) {
+        this.messageListener = messageListener;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public synchronized long getMessageCount() {
+        return messageCount;
+    }
+
+    public synchronized long getAckCount() {
+        return ackCount;
+    }
+
+    private static class PendingAck implements Comparable<PendingAck> {
+
+        private final long time;
+        private final long sequence;
+        private final String message;
+
+        PendingAck(long time, long sequence, String message) {
+            this.time = time;
+            this.sequence = sequence;
+            this.message = message;
+        }
+
+        @Override
+        public int compareTo(PendingAck other) {
+            return time != other.time ? Long.compare(time, other.time) : Long.compare(sequence, other.sequence);
+        }
+    }
+}
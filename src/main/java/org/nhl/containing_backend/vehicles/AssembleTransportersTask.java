@@ -0,0 +1,27 @@
+package org.nhl.containing_backend.vehicles;
+
+import org.nhl.containing_backend.models.Container;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join task that loads the containers of a single transport type onto newly generated transporters.
+ */
+class AssembleTransportersTask extends RecursiveTask<List<Transporter>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String type;
+    private final List<Container> containers;
+
+    public AssembleTransportersTask(String type, List<Container> containers) {
+        this.type = type;
+        this.containers = containers;
+    }
+
+    @Override
+    protected List<Transporter> compute() {
+        return TransporterAssembler.assemble(type, containers);
+    }
+}
@@ -0,0 +1,230 @@
+package org.nhl.containing_backend.vehicles;
+
+import org.nhl.containing_backend.models.Container;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+
+/**
+ * Loads arriving containers onto newly generated transporters.
+ * <p/>
+ * Containers of one transport type are grouped on their (x, y, z) spawn position. Every transporter receives at most
+ * one container per position, so the largest group determines the amount of transporters. Positions are packed into
+ * the high bits of a long and the index of the container into the low bits; sorting these keys groups the containers
+ * per position while keeping their original order, without a map or any string handling.
+ * <p/>
+ * The transport types are independent of each other. Once a batch is big enough they are assembled concurrently on a
+ * fork-join pool; the transporters are still returned in the order of TYPES. A caller that must not wait for a big
+ * batch submits it instead and picks up the transporters once the returned future is done.
+ */
+public class TransporterAssembler {
+
+    /**
+     * Transport types in the order in which their transporters are returned.
+     */
+    public static final String[] TYPES = new String[]{"vrachtauto", "trein", "binnenschip", "zeeschip"};
+
+    /**
+     * Minimum amount of containers in a batch before the transport types are assembled concurrently.
+     */
+    public static final int PARALLEL_THRESHOLD = 1024;
+
+    private static final int COORDINATE_BITS = 12;
+    private static final int COORDINATE_MASK = (1 << COORDINATE_BITS) - 1;
+    private static final int INDEX_BITS = 24;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public TransporterAssembler() {
+        this(new ForkJoinPool(Math.min(TYPES.length, Runtime.getRuntime().availableProcessors())), PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param pool              Pool on which the transport types are assembled concurrently.
+     * @param parallelThreshold Minimum amount of containers in a batch before the pool is used.
+     */
+    public TransporterAssembler(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Distributes the provided containers over a list of newly generated transporters.
+     *
+     * @param containers Containers that have to arrive in harbour.
+     * @return Transporters loaded with containers that are ready to arrive, ordered by transport type.
+     */
+    public List<Transporter> assemble(List<Container> containers) {
+        List<List<Container>> containersPerType = new ArrayList<>();
+        for (int i = 0; i < TYPES.length; i++) {
+            containersPerType.add(new ArrayList<Container>());
+        }
+        for (Container container : containers) {
+            int type = typeIndex(container.getArrivalTransportType());
+            if (type >= 0) {
+                containersPerType.get(type).add(container);
+            }
+        }
+
+        List<Transporter> result = new ArrayList<>();
+        if (containers.size() < parallelThreshold) {
+            for (int i = 0; i < TYPES.length; i++) {
+                result.addAll(assemble(TYPES[i], containersPerType.get(i)));
+            }
+            return result;
+        }
+
+        AssembleTransportersTask[] tasks = new AssembleTransportersTask[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            if (!containersPerType.get(i).isEmpty()) {
+                tasks[i] = new AssembleTransportersTask(TYPES[i], containersPerType.get(i));
+                pool.execute(tasks[i]);
+            }
+        }
+        // Join in the order of TYPES, so the result does not depend on which task finishes first.
+        for (AssembleTransportersTask task : tasks) {
+            if (task != null) {
+                result.addAll(task.join());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts distributing the provided containers without waiting for the result. Batches below the parallel
+     * threshold are assembled right away, so their future is already done when this returns.
+     *
+     * @param containers Containers that have to arrive in harbour.
+     * @return Future of the transporters, ordered by transport type. A failure is reported by its get method.
+     */
+    public Future<List<Transporter>> submit(final List<Container> containers) {
+        ForkJoinTask<List<Transporter>> task = ForkJoinTask.adapt(new Callable<List<Transporter>>() {
+            @Override
+            public List<Transporter> call() {
+                return assemble(containers);
+            }
+        });
+        if (containers.size() < parallelThreshold) {
+            task.quietlyInvoke();
+        } else {
+            pool.execute(task);
+        }
+        return task;
+    }
+
+    /**
+     * Shuts down the pool once the assembler is no longer needed, so its worker threads are released.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Distributes containers of a single transport type over newly generated transporters of that type.
+     *
+     * @param type       Transport type of the containers.
+     * @param containers Containers that arrive by the provided type of transport.
+     * @return Loaded transporters.
+     */
+    public static List<Transporter> assemble(String type, List<Container> containers) {
+        List<Transporter> result = new ArrayList<>();
+        int count = containers.size();
+        if (count == 0) {
+            return result;
+        }
+        if (count > INDEX_MASK) {
+            throw new IllegalArgumentException("Too many containers in one batch: " + count);
+        }
+
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            Container container = containers.get(i);
+            keys[i] = (packPosition(container) << INDEX_BITS) | i;
+        }
+        Arrays.sort(keys);
+
+        // Find the groups of equal positions, the size of the biggest group and the boundaries of the transporters.
+        int[] groupStarts = new int[count + 1];
+        int groupCount = 0;
+        int amountOfTransporters = 0;
+        int limitX = 1;
+        int limitY = 1;
+        int limitZ = 1;
+        for (int i = 0; i < count; i++) {
+            long position = keys[i] >>> INDEX_BITS;
+            if (i == 0 || position != keys[i - 1] >>> INDEX_BITS) {
+                if (groupCount > 0) {
+                    amountOfTransporters = Math.max(amountOfTransporters, i - groupStarts[groupCount - 1]);
+                }
+                groupStarts[groupCount++] = i;
+                limitX = Math.max(limitX, x(position) + 1);
+                limitY = Math.max(limitY, y(position) + 1);
+                limitZ = Math.max(limitZ, z(position) + 1);
+            }
+        }
+        amountOfTransporters = Math.max(amountOfTransporters, count - groupStarts[groupCount - 1]);
+        groupStarts[groupCount] = count;
+
+        Point[] points = new Point[groupCount];
+        for (int group = 0; group < groupCount; group++) {
+            long position = keys[groupStarts[group]] >>> INDEX_BITS;
+            points[group] = new Point(x(position), y(position));
+        }
+
+        // Transporter i receives the i-th container of every group that is big enough.
+        for (int i = 0; i < amountOfTransporters; i++) {
+            Transporter transporter = new Transporter(type, limitX, limitY, limitZ);
+            for (int group = 0; group < groupCount; group++) {
+                int key = groupStarts[group] + i;
+                if (key < groupStarts[group + 1]) {
+                    transporter.putContainer(points[group], containers.get((int) (keys[key] & INDEX_MASK)));
+                }
+            }
+            result.add(transporter);
+        }
+        return result;
+    }
+
+    /**
+     * @param type Transport type.
+     * @return Index of the type in TYPES, or -1 if it is not a known type.
+     */
+    public static int typeIndex(String type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long packPosition(Container container) {
+        int x = container.getSpawnX();
+        int y = container.getSpawnY();
+        int z = container.getSpawnZ();
+        if ((x & ~COORDINATE_MASK) != 0 || (y & ~COORDINATE_MASK) != 0 || (z & ~COORDINATE_MASK) != 0) {
+            throw new IllegalArgumentException("Spawn position out of range for container " + container.getNumber());
+        }
+        return ((long) x << (2 * COORDINATE_BITS)) | ((long) y << COORDINATE_BITS) | z;
+    }
+
+    private static int x(long position) {
+        return (int) (position >>> (2 * COORDINATE_BITS)) & COORDINATE_MASK;
+    }
+
+    private static int y(long position) {
+        return (int) (position >>> COORDINATE_BITS) & COORDINATE_MASK;
+    }
+
+    private static int z(long position) {
+        return (int) position & COORDINATE_MASK;
+    }
+}
@@ -0,0 +1,369 @@
+package org.nhl.containing_backend.xml;
+
+import org.nhl.containing_backend.models.ArrivalTimes;
+import org.nhl.containing_backend.models.Container;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot cache of parsed container files.
+ * <p/>
+ * A snapshot is stored per XML file, named after the SHA-1 hash of the file contents. Layout (big-endian):
+ * <pre>
+ * int     magic "CNTR"
+ * int     format version
+ * byte[20] SHA-1 of the source XML and the default time zone
+ * int     CRC32 of everything after the header
+ * int     record count
+ * int     string count
+ * strings (int byte length, UTF-8 bytes), index -1 means null
+ * records (RECORD_SIZE bytes each)
+ * </pre>
+ * Records have a fixed size, so a snapshot is memory-mapped and each Container is only decoded when it is first
+ * requested.
+ */
+class ContainerCache {
+
+    private static final int MAGIC = 0x434E5452;
+    private static final int VERSION = 3;
+    private static final int HASH_SIZE = 20;
+    private static final int HEADER_SIZE = 4 + 4 + HASH_SIZE + 4 + 4 + 4;
+    private static final int FIELD_COUNT = 28;
+    private static final int RECORD_SIZE = FIELD_COUNT * 4 + 2 * 8;
+
+    private final File directory;
+
+    /**
+     * @param directory Directory in which snapshots are stored. It is created when the first snapshot is written.
+     */
+    public ContainerCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Calculate the key under which the snapshot of an XML file is stored.
+     * <p/>
+     * The arrival and departure times in a snapshot are computed in the default time zone, so the zone is part of
+     * the key: a JVM in another zone parses the XML again instead of loading shifted times.
+     *
+     * @param xml Raw contents of the XML file.
+     * @return SHA-1 hash of the contents and the ID of the default time zone.
+     */
+    public static byte[] hash(byte[] xml) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(xml);
+            digest.update(TimeZone.getDefault().getID().getBytes(StandardCharsets.UTF_8));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-1.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Load the snapshot belonging to an XML file.
+     *
+     * @param hash Hash of the XML file, see {@link #hash(byte[])}.
+     * @return Lazily materialised containers, or null if there is no valid snapshot for the hash.
+     */
+    public List<Container> load(byte[] hash) {
+        File file = fileFor(hash);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return open(buffer, hash);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring unreadable container cache " + file + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Write the snapshot of an XML file. Failures are reported but otherwise ignored; the cache is only an
+     * optimisation.
+     *
+     * @param hash       Hash of the XML file, see {@link #hash(byte[])}.
+     * @param containers Finalised containers parsed from the XML file.
+     */
+    public void store(byte[] hash, List<Container> containers) {
+        File file = fileFor(hash);
+        File temp = new File(directory, file.getName() + ".tmp" + Thread.currentThread().getId());
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Unable to create " + directory);
+            }
+            ByteBuffer buffer = encode(hash, containers);
+            try (RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+                 FileChannel channel = raf.getChannel()) {
+                channel.truncate(0);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            if (!temp.renameTo(file)) {
+                // Another process may have written the same snapshot in the meantime.
+                file.delete();
+                if (!temp.renameTo(file)) {
+                    throw new IOException("Unable to move " + temp + " to " + file);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+        }
+    }
+
+    private File fileFor(byte[] hash) {
+        StringBuilder name = new StringBuilder();
+        for (byte b : hash) {
+            name.append(Character.forDigit((b >> 4) & 0xF, 16));
+            name.append(Character.forDigit(b & 0xF, 16));
+        }
+        name.append(".bin");
+        return new File(directory, name.toString());
+    }
+
+    private static ByteBuffer encode(byte[] hash, List<Container> containers) {
+        Map<String, Integer> stringIndices = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[][] stringFields = new int[containers.size()][];
+        int stringBytes = 0;
+
+        for (int i = 0; i < containers.size(); i++) {
+            String[] values = stringsOf(containers.get(i));
+            int[] indices = new int[values.length];
+            for (int j = 0; j < values.length; j++) {
+                if (values[j] == null) {
+                    indices[j] = -1;
+                    continue;
+                }
+                Integer index = stringIndices.get(values[j]);
+                if (index == null) {
+                    byte[] bytes = values[j].getBytes(StandardCharsets.UTF_8);
+                    index = strings.size();
+                    stringIndices.put(values[j], index);
+                    strings.add(bytes);
+                    stringBytes += 4 + bytes.length;
+                }
+                indices[j] = index;
+            }
+            stringFields[i] = indices;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + stringBytes + containers.size() * RECORD_SIZE);
+        buffer.position(HEADER_SIZE);
+        for (byte[] bytes : strings) {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+        for (int i = 0; i < containers.size(); i++) {
+            Container container = containers.get(i);
+            int[] s = stringFields[i];
+            buffer.putInt(container.getNumber());
+            buffer.putInt(container.getArrivalDay());
+            buffer.putInt(container.getArrivalMonth());
+            buffer.putInt(container.getArrivalYear());
+            buffer.putInt(s[0]);
+            buffer.putInt(s[1]);
+            buffer.putInt(s[2]);
+            buffer.putInt(s[3]);
+            buffer.putInt(container.getSpawnX());
+            buffer.putInt(container.getSpawnY());
+            buffer.putInt(container.getSpawnZ());
+            buffer.putInt(s[4]);
+            buffer.putInt(container.getDepartureDay());
+            buffer.putInt(container.getDepartureMonth());
+            buffer.putInt(container.getDepartureYear());
+            buffer.putInt(s[5]);
+            buffer.putInt(s[6]);
+            buffer.putInt(s[7]);
+            buffer.putInt(s[8]);
+            buffer.putInt(s[9]);
+            buffer.putInt(s[10]);
+            buffer.putInt(s[11]);
+            buffer.putInt(s[12]);
+            buffer.putFloat(container.getEmptyWeight());
+            buffer.putFloat(container.getContentsWeight());
+            buffer.putFloat(container.getLength());
+            buffer.putFloat(container.getWidth());
+            buffer.putFloat(container.getHeight());
+            buffer.putLong(container.getArrivalTime());
+            buffer.putLong(container.getDepartureTime());
+        }
+
+        byte[] array = buffer.array();
+        CRC32 crc = new CRC32();
+        crc.update(array, HEADER_SIZE, array.length - HEADER_SIZE);
+
+        buffer.position(0);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.put(hash);
+        buffer.putInt((int) crc.getValue());
+        buffer.putInt(containers.size());
+        buffer.putInt(strings.size());
+        buffer.position(0);
+        return buffer;
+    }
+
+    private static String[] stringsOf(Container container) {
+        return new String[]{
+                container.getArrivalSpanStart(),
+                container.getArrivalSpanEnd(),
+                container.getArrivalTransportType(),
+                container.getArrivalCompany(),
+                container.getOwner(),
+                container.getDepartureSpanStart(),
+                container.getDepartureSpanEnd(),
+                container.getDepartureTransportType(),
+                container.getDepartureCompany(),
+                container.getContentsName(),
+                container.getContentsType(),
+                container.getContentsDanger(),
+                container.getIso()
+        };
+    }
+
+    private static List<Container> open(ByteBuffer buffer, byte[] hash) {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null;
+        }
+        byte[] storedHash = new byte[HASH_SIZE];
+        buffer.position(8);
+        buffer.get(storedHash);
+        if (!Arrays.equals(hash, storedHash)) {
+            return null;
+        }
+        int checksum = buffer.getInt();
+        int recordCount = buffer.getInt();
+        int stringCount = buffer.getInt();
+
+        if (checksum != checksum(buffer, HEADER_SIZE)) {
+            return null;
+        }
+
+        buffer.position(HEADER_SIZE);
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = Xml.STRINGS.share(new String(bytes, StandardCharsets.UTF_8));
+        }
+        if (buffer.remaining() != recordCount * RECORD_SIZE) {
+            return null;
+        }
+        return new CachedContainerList(buffer.slice(), strings, recordCount);
+    }
+
+    private static int checksum(ByteBuffer buffer, int from) {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[8192];
+        ByteBuffer view = buffer.duplicate();
+        view.position(from);
+        while (view.hasRemaining()) {
+            int length = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, length);
+            crc.update(chunk, 0, length);
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Read-only list over the records of a mapped snapshot. Containers are decoded on first access and then kept;
+     * arrival times are read from the records without decoding. Not thread-safe.
+     */
+    private static class CachedContainerList extends java.util.AbstractList<Container> implements ArrivalTimes {
+
+        private final ByteBuffer records;
+        private final String[] strings;
+        private final Container[] materialised;
+
+        CachedContainerList(ByteBuffer records, String[] strings, int size) {
+            this.records = records;
+            this.strings = strings;
+            this.materialised = new Container[size];
+        }
+
+        @Override
+        public Container get(int index) {
+            Container container = materialised[index];
+            if (container == null) {
+                container = decode(index * RECORD_SIZE);
+                materialised[index] = container;
+            }
+            return container;
+        }
+
+        @Override
+        public long arrivalTime(int index) {
+            if (index < 0 || index >= materialised.length) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + materialised.length);
+            }
+            return records.getLong(index * RECORD_SIZE + 112);
+        }
+
+        @Override
+        public int size() {
+            return materialised.length;
+        }
+
+        private Container decode(int offset) {
+            ByteBuffer b = records;
+            Container container = new Container();
+            container.setNumber(b.getInt(offset));
+            container.setArrivalDay(b.getInt(offset + 4));
+            container.setArrivalMonth(b.getInt(offset + 8));
+            container.setArrivalYear(b.getInt(offset + 12));
+            container.setArrivalSpanStart(string(b.getInt(offset + 16)));
+            container.setArrivalSpanEnd(string(b.getInt(offset + 20)));
+            container.setArrivalTransportType(string(b.getInt(offset + 24)));
+            container.setArrivalCompany(string(b.getInt(offset + 28)));
+            container.setSpawnX(b.getInt(offset + 32));
+            container.setSpawnY(b.getInt(offset + 36));
+            container.setSpawnZ(b.getInt(offset + 40));
+            container.setOwner(string(b.getInt(offset + 44)));
+            container.setDepartureDay(b.getInt(offset + 48));
+            container.setDepartureMonth(b.getInt(offset + 52));
+            container.setDepartureYear(b.getInt(offset + 56));
+            container.setDepartureSpanStart(string(b.getInt(offset + 60)));
+            container.setDepartureSpanEnd(string(b.getInt(offset + 64)));
+            container.setDepartureTransportType(string(b.getInt(offset + 68)));
+            container.setDepartureCompany(string(b.getInt(offset + 72)));
+            container.setContentsName(string(b.getInt(offset + 76)));
+            container.setContentsType(string(b.getInt(offset + 80)));
+            container.setContentsDanger(string(b.getInt(offset + 84)));
+            container.setIso(string(b.getInt(offset + 88)));
+            container.setEmptyWeight(b.getFloat(offset + 92));
+            container.setContentsWeight(b.getFloat(offset + 96));
+            container.setLength(b.getFloat(offset + 100));
+            container.setWidth(b.getFloat(offset + 104));
+            container.setHeight(b.getFloat(offset + 108));
+            container.setArrivalTime(b.getLong(offset + 112));
+            container.setDepartureTime(b.getLong(offset + 120));
+            return container;
+        }
+
+        private String string(int index) {
+            return index < 0 ? null : strings[index];
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package org.nhl.containing_backend.xml;
+
+import org.nhl.containing_backend.models.Container;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming reader for container recordsets.
+ * <p/>
+ * Every element path that can occur in a recordset is resolved once into a state of a precomputed transition table.
+ * Walking the document only requires one table lookup per start tag; text nodes are dispatched on the integer state of
+ * the enclosing element, so no element names are compared while reading values.
+ * <p/>
+ * Text fields are shared through a StringDictionary, so equal values of different containers refer to one instance.
+ */
+class ContainerXmlReader {
+
+    // Structural states.
+    private static final int UNKNOWN = 0;
+    private static final int DOCUMENT = 1;
+    private static final int RECORDSET = 2;
+    private static final int RECORD = 3;
+    private static final int ARRIVAL = 4;
+    private static final int ARRIVAL_DATE = 5;
+    private static final int ARRIVAL_TIME = 6;
+    private static final int POSITION = 7;
+    private static final int OWNER = 8;
+    private static final int DEPARTURE = 9;
+    private static final int DEPARTURE_DATE = 10;
+    private static final int DEPARTURE_TIME = 11;
+    private static final int DIMENSIONS = 12;
+    private static final int WEIGHT = 13;
+    private static final int CONTENTS = 14;
+
+    // Value states. Every state from here on holds text that is written to a Container field.
+    private static final int FIRST_VALUE = 15;
+    private static final int ARRIVAL_DAY = 15;
+    private static final int ARRIVAL_MONTH = 16;
+    private static final int ARRIVAL_YEAR = 17;
+    private static final int ARRIVAL_SPAN_START = 18;
+    private static final int ARRIVAL_SPAN_END = 19;
+    private static final int ARRIVAL_TRANSPORT_TYPE = 20;
+    private static final int ARRIVAL_COMPANY = 21;
+    private static final int SPAWN_X = 22;
+    private static final int SPAWN_Y = 23;
+    private static final int SPAWN_Z = 24;
+    private static final int OWNER_NAME = 25;
+    private static final int NUMBER = 26;
+    private static final int DEPARTURE_DAY = 27;
+    private static final int DEPARTURE_MONTH = 28;
+    private static final int DEPARTURE_YEAR = 29;
+    private static final int DEPARTURE_SPAN_START = 30;
+    private static final int DEPARTURE_SPAN_END = 31;
+    private static final int DEPARTURE_TRANSPORT_TYPE = 32;
+    private static final int DEPARTURE_COMPANY = 33;
+    private static final int LENGTH = 34;
+    private static final int WIDTH = 35;
+    private static final int HEIGHT = 36;
+    private static final int EMPTY_WEIGHT = 37;
+    private static final int CONTENTS_WEIGHT = 38;
+    private static final int CONTENTS_NAME = 39;
+    private static final int CONTENTS_TYPE = 40;
+    private static final int CONTENTS_DANGER = 41;
+    private static final int ISO = 42;
+    private static final int STATE_COUNT = 43;
+
+    private static final List<Map<String, Integer>> TRANSITIONS = buildTransitions();
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+    private final StringDictionary strings;
+
+    /**
+     * Create a reader that shares text fields through the dictionary of the ingest path.
+     */
+    public ContainerXmlReader() {
+        this(Xml.STRINGS);
+    }
+
+    /**
+     * @param strings Dictionary through which text fields are shared.
+     */
+    public ContainerXmlReader(StringDictionary strings) {
+        this.strings = strings;
+    }
+
+    private static List<Map<String, Integer>> buildTransitions() {
+        List<Map<String, Integer>> table = new ArrayList<>(STATE_COUNT);
+        for (int i = 0; i < STATE_COUNT; i++) {
+            table.add(new HashMap<String, Integer>());
+        }
+        table.get(DOCUMENT).put("recordset", RECORDSET);
+        table.get(DOCUMENT).put("record", RECORD);
+        table.get(RECORDSET).put("record", RECORD);
+
+        table.get(RECORD).put("aankomst", ARRIVAL);
+        table.get(RECORD).put("eigenaar", OWNER);
+        table.get(RECORD).put("vertrek", DEPARTURE);
+        table.get(RECORD).put("afmetingen", DIMENSIONS);
+        table.get(RECORD).put("gewicht", WEIGHT);
+        table.get(RECORD).put("inhoud", CONTENTS);
+        table.get(RECORD).put("ISO", ISO);
+
+        table.get(ARRIVAL).put("datum", ARRIVAL_DATE);
+        table.get(ARRIVAL).put("tijd", ARRIVAL_TIME);
+        table.get(ARRIVAL).put("soort_vervoer", ARRIVAL_TRANSPORT_TYPE);
+        table.get(ARRIVAL).put("bedrijf", ARRIVAL_COMPANY);
+        table.get(ARRIVAL).put("positie", POSITION);
+        table.get(ARRIVAL_DATE).put("d", ARRIVAL_DAY);
+        table.get(ARRIVAL_DATE).put("m", ARRIVAL_MONTH);
+        table.get(ARRIVAL_DATE).put("j", ARRIVAL_YEAR);
+        table.get(ARRIVAL_TIME).put("van", ARRIVAL_SPAN_START);
+        table.get(ARRIVAL_TIME).put("tot", ARRIVAL_SPAN_END);
+        table.get(POSITION).put("x", SPAWN_X);
+        table.get(POSITION).put("y", SPAWN_Y);
+        table.get(POSITION).put("z", SPAWN_Z);
+
+        table.get(OWNER).put("naam", OWNER_NAME);
+        table.get(OWNER).put("containernr", NUMBER);
+
+        table.get(DEPARTURE).put("datum", DEPARTURE_DATE);
+        table.get(DEPARTURE).put("tijd", DEPARTURE_TIME);
+        table.get(DEPARTURE).put("soort_vervoer", DEPARTURE_TRANSPORT_TYPE);
+        table.get(DEPARTURE).put("bedrijf", DEPARTURE_COMPANY);
+        table.get(DEPARTURE_DATE).put("d", DEPARTURE_DAY);
+        table.get(DEPARTURE_DATE).put("m", DEPARTURE_MONTH);
+        table.get(DEPARTURE_DATE).put("j", DEPARTURE_YEAR);
+        table.get(DEPARTURE_TIME).put("van", DEPARTURE_SPAN_START);
+        table.get(DEPARTURE_TIME).put("tot", DEPARTURE_SPAN_END);
+
+        table.get(DIMENSIONS).put("l", LENGTH);
+        table.get(DIMENSIONS).put("b", WIDTH);
+        table.get(DIMENSIONS).put("h", HEIGHT);
+        table.get(WEIGHT).put("leeg", EMPTY_WEIGHT);
+        table.get(WEIGHT).put("inhoud", CONTENTS_WEIGHT);
+        table.get(CONTENTS).put("naam", CONTENTS_NAME);
+        table.get(CONTENTS).put("soort", CONTENTS_TYPE);
+        table.get(CONTENTS).put("gevaar", CONTENTS_DANGER);
+        return table;
+    }
+
+    /**
+     * Read all records from a recordset document.
+     *
+     * @param in Stream containing the recordset XML.
+     * @return Finalised containers in document order.
+     * @throws XMLStreamException If the document is malformed or holds text outside of a value element.
+     */
+    public List<Container> read(InputStream in) throws XMLStreamException {
+        return read(FACTORY.createXMLStreamReader(in));
+    }
+
+    /**
+     * Read all records from a recordset document with a known encoding.
+     *
+     * @param in       Stream containing the recordset XML.
+     * @param encoding Character encoding of the stream.
+     * @return Finalised containers in document order.
+     * @throws XMLStreamException If the document is malformed or holds text outside of a value element.
+     */
+    public List<Container> read(InputStream in, String encoding) throws XMLStreamException {
+        return read(FACTORY.createXMLStreamReader(in, encoding));
+    }
+
+    private List<Container> read(XMLStreamReader reader) throws XMLStreamException {
+        List<Container> containers = new ArrayList<>();
+        int[] stateStack = new int[16];
+        int depth = 0;
+        stateStack[0] = DOCUMENT;
+        Container container = null;
+
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT: {
+                        int state = transition(stateStack[depth], reader.getLocalName());
+                        if (state >= FIRST_VALUE) {
+                            // Reads up to and including the matching end tag.
+                            setValue(container, state, reader.getElementText().trim());
+                            break;
+                        }
+                        if (state == RECORD) {
+                            container = new Container();
+                        }
+                        depth++;
+                        if (depth == stateStack.length) {
+                            stateStack = Arrays.copyOf(stateStack, depth * 2);
+                        }
+                        stateStack[depth] = state;
+                        break;
+                    }
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (stateStack[depth] == RECORD) {
+                            // Technically not mandatory, but fixes XML input errors.
+                            container.finalise();
+                            containers.add(container);
+                            container = null;
+                        }
+                        depth--;
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                        // Values are read with their start tag, so any other text is out of place.
+                        if (!reader.isWhiteSpace() && reader.getText().trim().length() > 0) {
+                            throw new XMLStreamException(stateStack[depth] == UNKNOWN
+                                    ? "Text in unrecognised element." : "Text in structural element.",
+                                    reader.getLocation());
+                        }
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return containers;
+    }
+
+    private static int transition(int state, String localName) {
+        if (state == UNKNOWN) {
+            return UNKNOWN;
+        }
+        Integer next = TRANSITIONS.get(state).get(localName);
+        return next == null ? UNKNOWN : next;
+    }
+
+    private void setValue(Container container, int state, String value) throws XMLStreamException {
+        if (container == null) {
+            throw new XMLStreamException("Value outside of record.");
+        }
+        if (value.length() == 0) {
+            return;
+        }
+        switch (state) {
+            case ARRIVAL_DAY:
+                container.setArrivalDay(Integer.parseInt(value));
+                break;
+            case ARRIVAL_MONTH:
+                container.setArrivalMonth(Integer.parseInt(value));
+                break;
+            case ARRIVAL_YEAR:
+                container.setArrivalYear(Integer.parseInt(value));
+                break;
+            case ARRIVAL_SPAN_START:
+                container.setArrivalSpanStart(strings.share(value));
+                break;
+            case ARRIVAL_SPAN_END:
+                container.setArrivalSpanEnd(strings.share(value));
+                break;
+            case ARRIVAL_TRANSPORT_TYPE:
+                container.setArrivalTransportType(strings.share(value));
+                break;
+            case ARRIVAL_COMPANY:
+                container.setArrivalCompany(strings.share(value));
+                break;
+            case SPAWN_X:
+                container.setSpawnX(Integer.parseInt(value));
+                break;
+            case SPAWN_Y:
+                container.setSpawnY(Integer.parseInt(value));
+                break;
+            case SPAWN_Z:
+                container.setSpawnZ(Integer.parseInt(value));
+                break;
+            case OWNER_NAME:
+                container.setOwner(strings.share(value));
+                break;
+            case NUMBER:
+                container.setNumber(Integer.parseInt(value));
+                break;
+            case DEPARTURE_DAY:
+                container.setDepartureDay(Integer.parseInt(value));
+                break;
+            case DEPARTURE_MONTH:
+                container.setDepartureMonth(Integer.parseInt(value));
+                break;
+            case DEPARTURE_YEAR:
+                container.setDepartureYear(Integer.parseInt(value));
+                break;
+            case DEPARTURE_SPAN_START:
+                container.setDepartureSpanStart(strings.share(value));
+                break;
+            case DEPARTURE_SPAN_END:
+                container.setDepartureSpanEnd(strings.share(value));
+                break;
+            case DEPARTURE_TRANSPORT_TYPE:
+                container.setDepartureTransportType(strings.share(value));
+                break;
+            case DEPARTURE_COMPANY:
+                container.setDepartureCompany(strings.share(value));
+                break;
+            case LENGTH:
+                container.setLength(Container.calculateLength(value));
+                break;
+            case WIDTH:
+                container.setWidth(Container.calculateLength(value));
+                break;
+            case HEIGHT:
+                container.setHeight(Container.calculateLength(value));
+                break;
+            case EMPTY_WEIGHT:
+                container.setEmptyWeight((float) Integer.parseInt(value));
+                break;
+            case CONTENTS_WEIGHT:
+                container.setContentsWeight((float) Integer.parseInt(value));
+                break;
+            case CONTENTS_NAME:
+                container.setContentsName(strings.share(value));
+                break;
+            case CONTENTS_TYPE:
+                container.setContentsType(strings.share(value));
+                break;
+            case CONTENTS_DANGER:
+                container.setContentsDanger(strings.share(value));
+                break;
+            case ISO:
+                container.setIso(strings.share(value));
+                break;
+        }
+    }
+}
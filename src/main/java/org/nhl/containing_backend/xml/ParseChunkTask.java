@@ -0,0 +1,83 @@
+package org.nhl.containing_backend.xml;
+
+import org.nhl.containing_backend.models.Container;
+
+import javax.xml.stream.XMLStreamException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join task that parses a range of chunks of a single recordset.
+ * <p/>
+ * Ranges of more than one chunk are split in half recursively; every chunk is parsed by its own ContainerXmlReader
+ * and the results are concatenated in document order. If any chunk cannot be parsed, the whole document yields null.
+ */
+class ParseChunkTask extends RecursiveTask<List<Container>> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Documents are not split into chunks smaller than this, as every chunk needs its own parser.
+     */
+    public static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+    private final ByteBuffer xml;
+    private final int[] boundaries;
+    private final int from;
+    private final int to;
+
+    private ParseChunkTask(ByteBuffer xml, int[] boundaries, int from, int to) {
+        this.xml = xml;
+        this.boundaries = boundaries;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Create the task that parses a whole recordset document.
+     *
+     * @param xml         UTF-8 encoded recordset document.
+     * @param parallelism Amount of workers that will process the chunks.
+     * @return Task that yields the containers of the document, or null if the document could not be parsed.
+     */
+    public static ParseChunkTask forDocument(ByteBuffer xml, int parallelism) {
+        int[] boundaries = RecordSplitter.split(xml, MIN_CHUNK_SIZE, parallelism * 4);
+        if (boundaries == null) {
+            return new ParseChunkTask(xml, null, 0, 1);
+        }
+        return new ParseChunkTask(xml, boundaries, 0, boundaries.length - 1);
+    }
+
+    @Override
+    protected List<Container> compute() {
+        if (to - from > 1) {
+            int middle = (from + to) >>> 1;
+            ParseChunkTask left = new ParseChunkTask(xml, boundaries, from, middle);
+            ParseChunkTask right = new ParseChunkTask(xml, boundaries, middle, to);
+            invokeAll(left, right);
+            List<Container> result = left.join();
+            List<Container> rest = right.join();
+            if (result == null || rest == null) {
+                return null;
+            }
+            result.addAll(rest);
+            return result;
+        }
+
+        try {
+            if (boundaries == null) {
+                return new ContainerXmlReader().read(RecordSplitter.stream(xml));
+            }
+            return new ContainerXmlReader().read(RecordSplitter.chunkStream(xml, boundaries[from], boundaries[to]),
+                    "UTF-8");
+        } catch (XMLStreamException | RuntimeException e) {
+            if (boundaries != null) {
+                System.out.println("Unable to parse the records at bytes " + boundaries[from] + " to "
+                        + boundaries[to]);
+            }
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package org.nhl.containing_backend.xml;
+
+import org.nhl.containing_backend.models.Container;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join task that parses a single container XML resource from the classpath.
+ * <p/>
+ * Large resources are split into chunks of records that are parsed in parallel on the same pool. If a cache is provided, a snapshot of the parsed resource is loaded from or written to it.
+ */
+class ParseResourceTask extends RecursiveTask<List<Container>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String resource;
+    private final ContainerCache cache;
+
+    public ParseResourceTask(String resource, ContainerCache cache) {
+        this.resource = resource;
+        this.cache = cache;
+    }
+
+    /**
+     * Parse the resource. Missing or broken resources yield an empty list, so that one bad file does not take the
+     * other files down with it.
+     *
+     * @return Containers of the resource in document order.
+     */
+    @Override
+    protected List<Container> compute() {
+        List<Container> containers = null;
+        try (InputStream in = Xml.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                System.out.println("Unable to find container resource " + resource);
+            } else if (cache == null) {
+                containers = parse(readFully(in));
+            } else {
+                containers = parseCached(readFully(in));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (containers == null) {
+            return new ArrayList<>();
+        }
+        return containers;
+    }
+
+    private List<Container> parseCached(byte[] xml) {
+        byte[] hash = ContainerCache.hash(xml);
+        List<Container> containers = cache.load(hash);
+        if (containers == null) {
+            containers = parse(xml);
+            if (containers != null) {
+                cache.store(hash, containers);
+            }
+        }
+        return containers;
+    }
+
+    private List<Container> parse(byte[] xml) {
+        return ParseChunkTask.forDocument(ByteBuffer.wrap(xml), getPool().getParallelism()).invoke();
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 8192));
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
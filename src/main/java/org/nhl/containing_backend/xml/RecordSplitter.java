@@ -0,0 +1,186 @@
+package org.nhl.containing_backend.xml;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits a UTF-8 encoded recordset into byte ranges that each hold a whole number of records.
+ * <p/>
+ * The buffer is scanned for {@code <record} start tags; the ranges can then be parsed independently by wrapping them
+ * in their own {@code <recordset>} element, see {@link #chunkStream(ByteBuffer, int, int)}. Comments or CDATA
+ * sections containing a record start tag are not supported.
+ */
+class RecordSplitter {
+
+    private static final byte[] RECORD_START = "<record".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CHUNK_PREFIX = "<recordset>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CHUNK_SUFFIX = "</recordset>".getBytes(StandardCharsets.US_ASCII);
+
+    private RecordSplitter() {
+    }
+
+    /**
+     * Find the offsets of all record start tags.
+     *
+     * @param xml Recordset document. Its position and limit are not modified.
+     * @return Ascending offsets of every {@code <record} tag, excluding {@code <recordset}.
+     */
+    public static int[] recordOffsets(ByteBuffer xml) {
+        int[] offsets = new int[64];
+        int count = 0;
+        int end = xml.limit() - RECORD_START.length;
+        for (int i = 0; i < end; i++) {
+            if (xml.get(i) != '<' || !startsWith(xml, i, RECORD_START)) {
+                continue;
+            }
+            byte next = xml.get(i + RECORD_START.length);
+            if (next == '>' || next == '/' || next == ' ' || next == '\t' || next == '\r' || next == '\n') {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = i;
+                i += RECORD_START.length;
+            }
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * Divide a recordset into consecutive chunks of roughly equal size that start at record boundaries.
+     *
+     * @param xml          Recordset document.
+     * @param minChunkSize Minimum amount of bytes per chunk.
+     * @param maxChunks    Maximum amount of chunks.
+     * @return Chunk boundaries; chunk i covers [boundaries[i], boundaries[i + 1]). Null if the document does not have
+     * at least two records.
+     */
+    public static int[] split(ByteBuffer xml, int minChunkSize, int maxChunks) {
+        int[] records = recordOffsets(xml);
+        if (records.length < 2) {
+            return null;
+        }
+        int first = records[0];
+        int end = lastEndTag(xml);
+        if (end <= records[records.length - 1]) {
+            return null;
+        }
+
+        int chunkCount = Math.max(1, Math.min(maxChunks, (end - first) / Math.max(1, minChunkSize)));
+        int chunkSize = (end - first) / chunkCount;
+
+        int[] boundaries = new int[chunkCount + 1];
+        int count = 0;
+        boundaries[count++] = first;
+        int record = 0;
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            int target = first + chunk * chunkSize;
+            while (record < records.length && records[record] < target) {
+                record++;
+            }
+            if (record == records.length) {
+                break;
+            }
+            if (records[record] > boundaries[count - 1]) {
+                boundaries[count++] = records[record];
+            }
+        }
+        boundaries[count++] = end;
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    /**
+     * Create a stream that presents a byte range of records as a standalone recordset document.
+     *
+     * @param xml   Recordset document.
+     * @param start Offset of the first record.
+     * @param end   Offset directly after the last record.
+     * @return UTF-8 encoded recordset document without XML declaration.
+     */
+    public static InputStream chunkStream(ByteBuffer xml, int start, int end) {
+        ByteBuffer body = xml.duplicate();
+        body.limit(end);
+        body.position(start);
+        return new ChunkInputStream(ByteBuffer.wrap(CHUNK_PREFIX), body.slice(), ByteBuffer.wrap(CHUNK_SUFFIX));
+    }
+
+    /**
+     * Create a stream over a whole document.
+     *
+     * @param xml Document.
+     * @return Stream over the bytes of the document.
+     */
+    public static InputStream stream(ByteBuffer xml) {
+        ByteBuffer body = xml.duplicate();
+        body.position(0);
+        return new ChunkInputStream(body);
+    }
+
+    /**
+     * Offset of the last end tag in the document, which closes the root element.
+     */
+    private static int lastEndTag(ByteBuffer xml) {
+        for (int i = xml.limit() - 2; i >= 0; i--) {
+            if (xml.get(i) == '<' && xml.get(i + 1) == '/') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(ByteBuffer xml, int offset, byte[] prefix) {
+        for (int i = 1; i < prefix.length; i++) {
+            if (xml.get(offset + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a sequence of buffers as one stream.
+     */
+    private static class ChunkInputStream extends InputStream {
+
+        private final ByteBuffer[] parts;
+        private int current;
+
+        ChunkInputStream(ByteBuffer... parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public int read() {
+            while (current < parts.length) {
+                if (parts[current].hasRemaining()) {
+                    return parts[current].get() & 0xFF;
+                }
+                current++;
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            while (current < parts.length) {
+                ByteBuffer part = parts[current];
+                if (part.hasRemaining()) {
+                    int count = Math.min(len, part.remaining());
+                    part.get(b, off, count);
+                    return count;
+                }
+                current++;
+            }
+            return -1;
+        }
+
+        @Override
+        public int available() {
+            return current < parts.length ? parts[current].remaining() : 0;
+        }
+    }
+}
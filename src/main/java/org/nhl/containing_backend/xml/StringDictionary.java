@@ -0,0 +1,48 @@
+package org.nhl.containing_backend.xml;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe dictionary that maps equal strings onto one shared instance.
+ * <p/>
+ * Container text fields (transport types, companies, owners, contents, ...) only take a handful of distinct values,
+ * so sharing one instance per value saves a String and its character array for nearly every field of every
+ * container. Once the dictionary holds its maximum amount of entries, new values are returned as-is.
+ */
+class StringDictionary {
+
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    /**
+     * @param maxSize Maximum amount of distinct values that are shared.
+     */
+    public StringDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Return the shared instance that is equal to the provided value.
+     *
+     * @param value Value to share. May be null.
+     * @return Shared instance, or the value itself if it is null or the dictionary is full.
+     */
+    public String share(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = values.get(value);
+        if (shared != null) {
+            return shared;
+        }
+        if (values.size() >= maxSize) {
+            return value;
+        }
+        shared = values.putIfAbsent(value, value);
+        return shared == null ? value : shared;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -1,32 +1,128 @@
 package org.nhl.containing_backend.xml;
 
 import org.nhl.containing_backend.models.Container;
+import org.nhl.containing_backend.models.JoinedContainerList;
 import org.w3c.dom.CharacterData;
 import org.w3c.dom.*;
 
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
+import java.io.File;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Parse messages from and to the server.
  */
 public class Xml {
-    
+
+    /**
+     * Dictionary through which all parsed containers share their text fields.
+     */
+    static final StringDictionary STRINGS = new StringDictionary(1 << 16);
+
+    /**
+     * Directory that setCacheDirectory() is usually given, next to the other temporary files of the user.
+     */
+    public static final File DEFAULT_CACHE_DIRECTORY = new File(System.getProperty("java.io.tmpdir"),
+            "containing_backend-cache");
+
+    private static ContainerCache containerCache;
+
+    /**
+     * Set the directory in which snapshots of parsed container resources are kept. Snapshots are off until a
+     * directory is set.
+     *
+     * @param directory Cache directory, or null to always parse the XML.
+     */
+    public static synchronized void setCacheDirectory(File directory) {
+        containerCache = directory == null ? null : new ContainerCache(directory);
+    }
+
+    /**
+     * Parse all container records from a recordset XML file.
+     *
+     * @param xmlFile Stream containing the recordset.
+     * @return List of finalised containers, or null if the file could not be parsed.
+     */
     public static List<Container> parseContainerXml(InputStream xmlFile) {
-        SAXParserFactory factory = SAXParserFactory.newInstance();
         try {
-            SAXParser saxParser = factory.newSAXParser();
-            XmlFileHandler handler = new XmlFileHandler();
-            saxParser.parse(xmlFile, handler);
-            return handler.containers;
+            return new ContainerXmlReader().read(xmlFile);
         } catch (Throwable e) {
             e.printStackTrace();
         }
         return null;
     }
 
+    /**
+     * Parse a (large) recordset file in parallel.
+     * <p/>
+     * The file is memory-mapped and split at record boundaries into chunks, which are parsed by separate workers and
+     * concatenated in document order. The file must be UTF-8 encoded and smaller than 2 GB.
+     *
+     * @param xmlFile Recordset file.
+     * @return List of finalised containers, or null if the file could not be parsed.
+     */
+    public static List<Container> parseContainerXml(File xmlFile) {
+        try (RandomAccessFile raf = new RandomAccessFile(xmlFile, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ForkJoinPool pool = new ForkJoinPool();
+            try {
+                return pool.invoke(ParseChunkTask.forDocument(buffer, pool.getParallelism()));
+            } finally {
+                pool.shutdown();
+            }
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Parse several container XML resources concurrently.
+     * <p/>
+     * Every resource is parsed by its own task on a fork-join pool that is bounded by the amount of processors; large
+     * resources are additionally split into chunks of records. The
+     * results are merged in the order of the provided resources, and within a resource in document order, so the
+     * outcome does not depend on which file finishes first.
+     * <p/>
+     * If a cache directory has been set, parsed resources are kept there as binary snapshots, so subsequent runs on the
+     * same files only have to map the snapshot instead of parsing the XML.
+     *
+     * @param resources Classpath names of the XML resources, e.g. "/xml1.xml".
+     * @return Read-only list of all containers of all resources that could be parsed.
+     */
+    public static List<Container> parseContainerXmlResources(String... resources) {
+        if (resources.length == 0) {
+            return new ArrayList<>();
+        }
+        ContainerCache cache;
+        synchronized (Xml.class) {
+            cache = containerCache;
+        }
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<ParseResourceTask> tasks = new ArrayList<>();
+            for (String resource : resources) {
+                ParseResourceTask task = new ParseResourceTask(resource, cache);
+                tasks.add(task);
+                pool.execute(task);
+            }
+            List<List<Container>> parts = new ArrayList<>();
+            for (ParseResourceTask task : tasks) {
+                parts.add(task.join());
+            }
+            // Joined instead of copied, so containers of cached resources are only decoded when they are used.
+            return new JoinedContainerList(parts);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     /**
      * Tries to decode the incoming XML message and splits it within attributes
      * of this class.
@@ -0,0 +1,75 @@
+package org.nhl.containing_backend;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+import org.nhl.containing_backend.communication.InFlightMessages;
+import org.nhl.containing_backend.communication.Server;
+import org.nhl.containing_backend.communication.messages.Message;
+import org.nhl.containing_backend.simulation.SimulatedClient;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the controller, run headless against a simulated client.
+ */
+public class TestController {
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private SimulatedClient client;
+    private Controller controller;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        client = new SimulatedClient();
+        controller = new Controller(client);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testSimulateOneDay() {
+        controller.simulate(DAY);
+
+        InFlightMessages messages = controller.getInFlightMessages();
+        assertTrue(client.getMessageCount() > 0);
+        assertTrue(client.getAckCount() <= client.getMessageCount());
+        // Transporters arrived, were unloaded and left again within the day.
+        assertTrue(messages.getAckCount(Message.CREATE) > 0);
+        assertTrue(messages.getAckCount(Message.CRANE) > 0);
+        assertTrue(messages.getAckCount(Message.DEPART) > 0);
+    }
+
+    @Test(timeout = 60000)
+    public void testSimulateWeek() {
+        controller.simulate(7 * DAY);
+
+        InFlightMessages messages = controller.getInFlightMessages();
+        long creates = messages.getAckCount(Message.CREATE);
+        assertTrue(creates > 0);
+        // A container passes a crane at most twice: off its transporter and into storage. More crane messages mean
+        // AGVs are sent back and forth for the same container.
+        assertTrue(messages.getAckCount(Message.CRANE) <= 2 * creates);
+        assertTrue(client.getMessageCount() <= 4 * creates);
+    }
+
+    @Test
+    public void testSimulateNeedsSimulatedClient() {
+        thrown.expect(IllegalStateException.class);
+        new Controller(new Server()).simulate(DAY);
+    }
+}
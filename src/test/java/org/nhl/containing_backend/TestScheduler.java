@@ -0,0 +1,92 @@
+package org.nhl.containing_backend;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the scheduler of delayed actions.
+ */
+public class TestScheduler {
+    private Scheduler scheduler;
+    private List<String> log;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = new Scheduler();
+        log = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    private Runnable append(final String entry) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                log.add(entry);
+            }
+        };
+    }
+
+    @Test
+    public void testRunDueInOrder() {
+        scheduler.schedule(200, append("c"));
+        scheduler.schedule(100, append("a"));
+        scheduler.schedule(100, append("b"));
+        scheduler.schedule(300, append("d"));
+
+        assertEquals(100, scheduler.nextTime());
+        assertEquals(3, scheduler.runDue(250));
+        assertEquals("[a, b, c]", log.toString());
+        assertEquals(300, scheduler.nextTime());
+    }
+
+    @Test
+    public void testRunDueRunsChainedActions() {
+        scheduler.schedule(100, new Runnable() {
+            @Override
+            public void run() {
+                log.add("first");
+                scheduler.schedule(150, append("second"));
+                scheduler.schedule(500, append("later"));
+            }
+        });
+        scheduler.schedule(120, new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("Failing action");
+            }
+        });
+
+        assertEquals(3, scheduler.runDue(200));
+        assertEquals("[first, second]", log.toString());
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    public void testNextTimeEmpty() {
+        assertTrue(scheduler.isEmpty());
+        assertEquals(Long.MAX_VALUE, scheduler.nextTime());
+        assertEquals(0, scheduler.runDue(Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,75 @@
+package org.nhl.containing_backend.communication;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+
+/**
+ * Compares the AckDecoder with the DOM parse that Controller.handleOkMessage did for every ack before.
+ * <p/>
+ * Not a unit test; run the main method by hand.
+ */
+public class AckDecoderBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int ACKS = 20000;
+
+    public static void main(String[] args) throws Exception {
+        String[] acks = new String[ACKS];
+        for (int i = 0; i < ACKS; i++) {
+            acks[i] = "<Simulation><id>" + (i + 1) + "</id><OK/></Simulation>";
+        }
+
+        AckDecoder decoder = new AckDecoder();
+        long dom = 0;
+        long scanner = 0;
+        long sum = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String ack : acks) {
+                sum += legacyReadId(ack);
+            }
+            long middle = System.nanoTime();
+            for (String ack : acks) {
+                if (!decoder.decode(ack)) {
+                    throw new IllegalStateException(ack + " is not a valid message");
+                }
+                sum -= decoder.getId();
+            }
+            long end = System.nanoTime();
+            if (round >= WARMUP_ROUNDS) {
+                dom += middle - start;
+                scanner += end - middle;
+            }
+        }
+        if (sum != 0) {
+            throw new IllegalStateException("Implementations disagree on the ids");
+        }
+        System.out.printf("%d acks: DOM %.0f ns/ack, scanner %.0f ns/ack, speed-up %.1fx%n", ACKS,
+                (double) dom / ROUNDS / ACKS, (double) scanner / ROUNDS / ACKS, (double) dom / scanner);
+    }
+
+    /**
+     * The DOM parse as it was in Controller.handleOkMessage before AckDecoder.
+     */
+    private static int legacyReadId(String xmlMessage) throws Exception {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        DocumentBuilder db = dbf.newDocumentBuilder();
+        InputSource source = new InputSource();
+        source.setCharacterStream(new StringReader(xmlMessage));
+
+        Document doc = db.parse(source);
+
+        NodeList nodes = doc.getElementsByTagName("id");
+        if (nodes.getLength() != 1) {
+            throw new Exception(xmlMessage + " is not a valid message");
+        }
+
+        return Integer.parseInt(nodes.item(0).getTextContent());
+    }
+}
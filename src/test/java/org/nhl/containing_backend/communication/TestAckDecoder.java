@@ -0,0 +1,72 @@
+package org.nhl.containing_backend.communication;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the scanner of XML acks.
+ */
+public class TestAckDecoder {
+    private AckDecoder decoder;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        decoder = new AckDecoder();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testDecodeOk() {
+        assertTrue(decoder.decode("<Simulation><id>1234</id><OK/></Simulation>"));
+        assertEquals(1234, decoder.getId());
+        assertEquals("OK", decoder.getType());
+        assertTrue(decoder.isType("OK"));
+        assertFalse(decoder.isType("O"));
+    }
+
+    @Test
+    public void testDecoderIsReusable() {
+        assertTrue(decoder.decode("<Simulation><id>1</id><OK/></Simulation>"));
+        assertTrue(decoder.decode("<Simulation><id>2</id><Error reason=\"x\"></Error></Simulation>"));
+        assertEquals(2, decoder.getId());
+        assertEquals("Error", decoder.getType());
+    }
+
+    @Test
+    public void testNoType() {
+        assertTrue(decoder.decode("<Simulation><id>7</id></Simulation>"));
+        assertEquals(7, decoder.getId());
+        assertNull(decoder.getType());
+        assertFalse(decoder.isType("OK"));
+    }
+
+    @Test
+    public void testInvalidAcks() {
+        assertFalse(decoder.decode("<Simulation><OK/></Simulation>"));
+        assertFalse(decoder.decode("<Simulation><id>1</id><id>2</id></Simulation>"));
+        assertFalse(decoder.decode("<Simulation><id></id><OK/></Simulation>"));
+        assertFalse(decoder.decode("<Simulation><id>12a</id><OK/></Simulation>"));
+        assertFalse(decoder.decode("<Simulation><id>99999999999</id><OK/></Simulation>"));
+        assertFalse(decoder.decode("<Simulation><id>5"));
+        assertFalse(decoder.decode(""));
+    }
+}
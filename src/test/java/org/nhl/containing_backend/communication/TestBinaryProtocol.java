@@ -0,0 +1,173 @@
+package org.nhl.containing_backend.communication;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+import org.nhl.containing_backend.communication.messages.CraneMessage;
+import org.nhl.containing_backend.communication.messages.CreateMessage;
+import org.nhl.containing_backend.communication.messages.DepartMessage;
+import org.nhl.containing_backend.communication.messages.Message;
+import org.nhl.containing_backend.communication.messages.MoveMessage;
+import org.nhl.containing_backend.communication.messages.SpeedMessage;
+import org.nhl.containing_backend.cranes.Crane;
+import org.nhl.containing_backend.cranes.TruckCrane;
+import org.nhl.containing_backend.models.Container;
+import org.nhl.containing_backend.routing.RouteTable;
+import org.nhl.containing_backend.routing.WaypointGraph;
+import org.nhl.containing_backend.vehicles.Agv;
+import org.nhl.containing_backend.vehicles.Transporter;
+
+import java.awt.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the binary wire protocol.
+ */
+public class TestBinaryProtocol {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testCreateMessageSharesOwners() throws IOException {
+        Transporter transporter = new Transporter("zeeschip", 2, 1, 2);
+        transporter.putContainer(new Point(0, 0), container(11, "Maersk", 0, 0, 0));
+        transporter.putContainer(new Point(1, 0), container(12, "Maersk", 1, 0, 0));
+        CreateMessage message = new CreateMessage(transporter);
+
+        DataInputStream in = frame(message);
+        assertEquals("zeeschip", in.readUTF());
+        assertEquals(transporter.getId(), in.readInt());
+        assertEquals(1, in.readShort());
+        assertEquals("Maersk", in.readUTF());
+        assertEquals(2, in.readInt());
+        for (Container container : transporter.getContainers()) {
+            assertEquals(container.getNumber(), in.readInt());
+            assertEquals(0, in.readShort());
+            assertEquals(container.getSpawnX(), in.readShort());
+            assertEquals(container.getSpawnY(), in.readShort());
+            assertEquals(container.getSpawnZ(), in.readShort());
+            assertEquals(container.getDepartureTime(), in.readLong());
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testSpeedMessage() throws IOException {
+        DataInputStream in = frame(new SpeedMessage(2.5f, "today"));
+        assertEquals(2.5f, in.readFloat(), 0);
+        assertEquals("today", in.readUTF());
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testCraneMessageWithoutTransporter() throws IOException {
+        Crane crane = new TruckCrane("vrachtauto");
+        Agv agv = new Agv();
+        DataInputStream in = frame(new CraneMessage(crane, null, agv, container(7, "owner", 0, 0, 0), null));
+        assertEquals("vrachtauto", in.readUTF());
+        assertEquals(crane.getId(), in.readInt());
+        assertEquals("", in.readUTF());
+        assertEquals(-1, in.readInt());
+        assertEquals(1, in.readByte());
+        assertEquals(agv.getId(), in.readInt());
+        assertEquals(7, in.readInt());
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testMoveMessageWritesWaypointNames() throws IOException {
+        Crane crane = new TruckCrane("vrachtauto");
+        Agv agv = new Agv();
+        MoveMessage message = new MoveMessage(agv, new RouteTable(WaypointGraph.terminal()).find("P", "I"), crane);
+
+        DataInputStream in = frame(message);
+        assertEquals(agv.getId(), in.readInt());
+        assertEquals(agv.getX(), in.readFloat(), 0);
+        assertEquals(agv.getY(), in.readFloat(), 0);
+        int length = in.readShort();
+        assertEquals(message.getRoute().length(), length);
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            names.append(i > 0 ? ", " : "").append(in.readUTF());
+        }
+        assertEquals(message.getRoute().toString(), names.toString());
+        assertEquals("vrachtauto", in.readUTF());
+        assertEquals(crane.getId(), in.readInt());
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testDepartMessage() throws IOException {
+        Transporter transporter = new Transporter("trein", 1, 1, 1);
+        DataInputStream in = frame(new DepartMessage(transporter));
+        assertEquals(transporter.getId(), in.readInt());
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testAckRoundTrip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryProtocol.writeAck(42, out);
+        BinaryProtocol.writeAck(43, out);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(42, BinaryProtocol.readAck(in));
+        assertEquals(43, BinaryProtocol.readAck(in));
+        thrown.expect(EOFException.class);
+        BinaryProtocol.readAck(in);
+    }
+
+    @Test
+    public void testHandshake() throws IOException {
+        assertTrue(BinaryProtocol.readHandshake(new ByteArrayInputStream(BinaryProtocol.HANDSHAKE)));
+        assertFalse(BinaryProtocol.readHandshake(new ByteArrayInputStream("<Simulation>".getBytes("UTF-8"))));
+        assertFalse(BinaryProtocol.readHandshake(new ByteArrayInputStream(new byte[2])));
+    }
+
+    /**
+     * Checks the header of the frame of a message.
+     *
+     * @return Stream positioned at the fields of the message.
+     */
+    private DataInputStream frame(Message message) throws IOException {
+        byte[] frame = BinaryProtocol.encode(message);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        assertEquals(frame.length - 4, in.readInt());
+        assertEquals(message.getMessageType(), in.readByte());
+        assertEquals(message.getId(), in.readInt());
+        return in;
+    }
+
+    private Container container(int number, String owner, int x, int y, int z) {
+        Container container = new Container();
+        container.setNumber(number);
+        container.setOwner(owner);
+        container.setSpawnPosition(new int[]{x, y, z});
+        return container;
+    }
+}
@@ -0,0 +1,99 @@
+package org.nhl.containing_backend.communication;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+import org.nhl.containing_backend.communication.messages.Message;
+import org.nhl.containing_backend.communication.messages.SpeedMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the table of messages that await an ack.
+ */
+public class TestInFlightMessages {
+    private InFlightMessages messages;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        messages = new InFlightMessages();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testRemoveReturnsMessageOnce() {
+        Message message = new SpeedMessage(1, "");
+        messages.add(message, 0);
+
+        assertSame(message, messages.get(message.getId()));
+        assertSame(message, messages.remove(message.getId(), 0));
+        assertNull(messages.remove(message.getId(), 0));
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    public void testUnknownIdIsNull() {
+        messages.add(new SpeedMessage(1, ""), 0);
+
+        assertNull(messages.remove(-1, 0));
+        assertEquals(1, messages.size());
+    }
+
+    @Test
+    public void testManyMessagesRemovedOutOfOrder() {
+        List<Message> sent = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Message message = new SpeedMessage(1, "");
+            sent.add(message);
+            messages.add(message, i);
+        }
+        assertEquals(5000, messages.size());
+
+        // Every other message first, then the rest, so removals leave holes all over the table.
+        for (int i = 0; i < sent.size(); i += 2) {
+            assertSame(sent.get(i), messages.remove(sent.get(i).getId(), i));
+        }
+        for (int i = 1; i < sent.size(); i += 2) {
+            assertSame(sent.get(i), messages.get(sent.get(i).getId()));
+        }
+        for (int i = sent.size() - 1; i > 0; i -= 2) {
+            assertSame(sent.get(i), messages.remove(sent.get(i).getId(), i));
+        }
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    public void testLatencyPerType() {
+        Message first = new SpeedMessage(1, "");
+        Message second = new SpeedMessage(1, "");
+        messages.add(first, 100);
+        messages.add(second, 200);
+        messages.remove(first.getId(), 400);
+        messages.remove(second.getId(), 300);
+
+        assertEquals(2, messages.getAckCount(Message.SPEED));
+        assertEquals(200, messages.getMeanLatency(Message.SPEED));
+        assertEquals(300, messages.getMaxLatency(Message.SPEED));
+        assertEquals(0, messages.getAckCount(Message.CRANE));
+        assertEquals(0, messages.getMeanLatency(Message.CRANE));
+    }
+}
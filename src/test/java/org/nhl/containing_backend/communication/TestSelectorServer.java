@@ -0,0 +1,125 @@
+package org.nhl.containing_backend.communication;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the single-threaded server of multiple clients.
+ */
+public class TestSelectorServer {
+    private static final int PORT_NUMBER = 6667;
+    private SelectorServer server;
+    private LinkedBlockingQueue<String> received;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        received = new LinkedBlockingQueue<>();
+        server = new SelectorServer(PORT_NUMBER);
+        server.setMessageListener(new MessageListener() {
+            @Override
+            public void messageReceived(String message) {
+                received.add(message);
+            }
+
+            @Override
+            public void ackReceived(int id) {
+            }
+
+            @Override
+            public void disconnected() {
+                received.add("disconnected");
+            }
+        });
+        new Thread(server).start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+        // Give the server thread the time to release the port.
+        Thread.sleep(500);
+    }
+
+    @Test
+    public void testMessagesAreBroadcastToAllClients() throws Exception {
+        Socket first = connect();
+        assertTrue(server.awaitConnection());
+        Socket second = connect();
+        // The second client is only registered once the server thread has accepted it.
+        Thread.sleep(500);
+
+        for (int i = 0; i < 500; i++) {
+            server.writeMessage("<id>" + i + "</id>");
+        }
+
+        for (Socket socket : new Socket[]{first, second}) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            for (int i = 0; i < 500; i++) {
+                assertEquals("<Controller><id>" + i + "</id></Controller>", in.readLine());
+            }
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testOnlyPrimaryClientReachesListener() throws Exception {
+        Socket primary = connect();
+        assertTrue(server.awaitConnection());
+        Socket monitor = connect();
+
+        new PrintWriter(monitor.getOutputStream(), true).println("monitor");
+        new PrintWriter(primary.getOutputStream(), true).println("primary");
+
+        assertEquals("primary", received.poll(5, TimeUnit.SECONDS));
+        assertNull(received.poll(500, TimeUnit.MILLISECONDS));
+        monitor.close();
+        primary.close();
+    }
+
+    @Test
+    public void testPrimaryClientLeavingDisconnects() throws Exception {
+        Socket primary = connect();
+        assertTrue(server.awaitConnection());
+
+        primary.close();
+
+        assertEquals("disconnected", received.poll(5, TimeUnit.SECONDS));
+    }
+
+    private Socket connect() throws IOException, InterruptedException {
+        // The server may still be opening its port.
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return new Socket("localhost", PORT_NUMBER);
+            } catch (IOException e) {
+                if (attempt == 20) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+}
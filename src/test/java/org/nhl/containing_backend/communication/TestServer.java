@@ -6,7 +6,6 @@ import org.junit.rules.ExpectedException;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.net.Socket;
 
 import static org.junit.Assert.*;
@@ -31,7 +30,7 @@ class Client implements Runnable {
             socket = new Socket(serverName, portNumber);
 
             listenRunnable = new ListenRunnable(new BufferedReader(new InputStreamReader(socket.getInputStream())));
-            sendRunnable = new SendRunnable(new PrintWriter(socket.getOutputStream(), true));
+            sendRunnable = new SendRunnable(socket.getOutputStream());
 
             Thread listenThread = new Thread(listenRunnable);
             listenThread.setName("ListenThread");
@@ -0,0 +1,56 @@
+package org.nhl.containing_backend.communication.messages;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+import org.nhl.containing_backend.vehicles.Transporter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for writing messages in XML.
+ */
+public class TestMessage {
+    private Transporter transporter;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        transporter = new Transporter("trein", 1, 1, 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testGenerateXml() {
+        ArriveMessage message = new ArriveMessage(transporter, 3);
+
+        assertEquals("<id>" + message.getId() + "</id><Arrive><transporterId>" + transporter.getId()
+                + "</transporterId><depotIndex>3</depotIndex></Arrive>", message.generateXml());
+    }
+
+    @Test
+    public void testAppendXmlReusesBuilder() {
+        Message first = new DepartMessage(transporter);
+        Message second = new SpeedMessage(2, "today");
+        StringBuilder builder = new StringBuilder("<Controller>");
+
+        first.appendXml(builder);
+        assertSame(builder, second.appendXml(builder));
+        assertEquals("<Controller>" + first.generateXml() + second.generateXml(), builder.toString());
+    }
+}
@@ -0,0 +1,118 @@
+package org.nhl.containing_backend.models;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the release order of the arrival queue.
+ */
+public class TestArrivalQueue {
+    private ArrivalQueue queue;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        queue = new ArrivalQueue();
+    }
+
+    @Test
+    public void testReleaseBefore() {
+        Container late = container(1, 300);
+        Container early = container(2, 100);
+        Container alsoEarly = container(3, 100);
+        queue.addAll(Arrays.asList(late, early, alsoEarly));
+
+        assertTrue(queue.releaseBefore(100).isEmpty());
+
+        List<Container> released = queue.releaseBefore(101);
+        assertEquals(Arrays.asList(early, alsoEarly), released);
+        assertEquals(1, queue.size());
+        assertEquals(300, queue.nextArrivalTime());
+    }
+
+    @Test
+    public void testAddAllAfterRelease() {
+        queue.addAll(Arrays.asList(container(1, 100), container(2, 300)));
+        queue.releaseBefore(200);
+        Container middle = container(3, 250);
+        queue.addAll(Arrays.asList(middle));
+
+        List<Container> released = queue.releaseBefore(Long.MAX_VALUE);
+        assertEquals(2, released.size());
+        assertSame(middle, released.get(0));
+        assertTrue(queue.isEmpty());
+        assertEquals(Long.MAX_VALUE, queue.nextArrivalTime());
+    }
+
+    @Test
+    public void testAddAllKeepsLazyListLazy() {
+        LazyList lazy = new LazyList(new long[]{300, 100, 200});
+        queue.addAll(lazy);
+
+        assertEquals(0, lazy.materialised);
+        assertEquals(100, queue.nextArrivalTime());
+
+        List<Container> released = queue.releaseBefore(250);
+        assertEquals(2, lazy.materialised);
+        assertEquals(1, released.get(0).getNumber());
+        assertEquals(2, released.get(1).getNumber());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test
+    }
+
+    /**
+     * List that knows its arrival times and counts the containers it has to create.
+     */
+    private static class LazyList extends AbstractList<Container> implements ArrivalTimes {
+        private final long[] times;
+        private int materialised;
+
+        LazyList(long[] times) {
+            this.times = times;
+        }
+
+        @Override
+        public Container get(int index) {
+            materialised++;
+            return container(index, times[index]);
+        }
+
+        @Override
+        public long arrivalTime(int index) {
+            return times[index];
+        }
+
+        @Override
+        public int size() {
+            return times.length;
+        }
+    }
+
+    private static Container container(int number, long arrivalTime) {
+        Container container = new Container();
+        container.setNumber(number);
+        container.setArrivalTime(arrivalTime);
+        return container;
+    }
+}
@@ -86,6 +86,38 @@ public class TestContainer {
         assertEquals(expected, con.getDepartureDate());
     }
 
+    @Test
+    public void testFinaliseCalculatesTimes() {
+        Container con = new Container();
+        con.setArrivalTransportType("trein");
+        con.setArrivalDay(1);
+        con.setArrivalMonth(9);
+        con.setArrivalYear(4);
+        con.setArrivalSpanStart("3.10");
+        con.setDepartureDay(2);
+        con.setDepartureMonth(9);
+        con.setDepartureYear(4);
+        con.setDepartureSpanStart("0.00");
+
+        con.finalise();
+
+        assertEquals(con.getArrivalDate().getTime(), con.getArrivalTime());
+        assertEquals(con.getDepartureDate().getTime(), con.getDepartureTime());
+    }
+
+    @Test
+    public void testAppendXmlDate() {
+        Container con = new Container();
+        con.setArrivalTransportType("trein");
+        con.setDepartureDay(2);
+        con.setDepartureMonth(9);
+        con.setDepartureYear(4);
+        con.setDepartureSpanStart("0.00");
+        con.finalise();
+
+        assertTrue(con.toXml().contains("<date>" + con.getDepartureDate() + "</date>"));
+    }
+
     @After
     public void tearDown() throws Exception {
         // Code executed after each test
@@ -0,0 +1,60 @@
+package org.nhl.containing_backend.models;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for writing dates without a Calendar, checked against Date.toString().
+ */
+public class TestDateText {
+    private TimeZone defaultZone;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        defaultZone = TimeZone.getDefault();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    @Test
+    public void testMatchesDateToString() {
+        Random random = new Random(42);
+        for (String zone : new String[]{"Europe/Amsterdam", "UTC", "America/New_York", "Asia/Kolkata"}) {
+            TimeZone.setDefault(TimeZone.getTimeZone(zone));
+            // Around the epoch, a leap day, a change to daylight saving time and random dates up to 2100.
+            assertDate(0);
+            assertDate(-1);
+            assertDate(951782400000L);
+            assertDate(1080435600000L);
+            for (int i = 0; i < 1000; i++) {
+                assertDate((long) (random.nextDouble() * 4102444800000L));
+            }
+        }
+    }
+
+    private static void assertDate(long time) {
+        assertEquals(new Date(time).toString(), DateText.append(new StringBuilder(), time).toString());
+    }
+}
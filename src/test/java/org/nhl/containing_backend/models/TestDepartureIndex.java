@@ -0,0 +1,80 @@
+package org.nhl.containing_backend.models;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the departure index of stored containers.
+ */
+public class TestDepartureIndex {
+    private DepartureIndex index;
+    private Container trainLate;
+    private Container trainEarly;
+    private Container lorry;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        index = new DepartureIndex();
+        trainLate = container("trein", 300);
+        trainEarly = container("trein", 100);
+        lorry = container("vrachtauto", 50);
+        index.add(trainLate);
+        index.add(trainEarly);
+        index.add(lorry);
+    }
+
+    @Test
+    public void testNextDepartures() {
+        assertEquals(Arrays.asList(trainEarly, trainLate), index.nextDepartures("trein", 301, 10));
+        assertEquals(Arrays.asList(trainEarly), index.nextDepartures("trein", 300, 10));
+        assertEquals(Arrays.asList(trainEarly), index.nextDepartures("trein", 301, 1));
+        assertTrue(index.nextDepartures("zeeschip", 301, 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testPollDepartures() {
+        List<Container> result = index.pollDepartures("trein", Long.MAX_VALUE, 1);
+        assertEquals(Arrays.asList(trainEarly), result);
+        assertEquals(2, index.size());
+        assertEquals(Arrays.asList(trainLate), index.nextDepartures("trein", Long.MAX_VALUE, 10));
+    }
+
+    @Test
+    public void testFirstAndRemove() {
+        assertSame(lorry, index.first());
+        assertTrue(index.remove(lorry));
+        assertFalse(index.remove(lorry));
+        assertSame(trainEarly, index.first());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test
+    }
+
+    private static Container container(String departureTransportType, long departureTime) {
+        Container container = new Container();
+        container.setDepartureTransportType(departureTransportType);
+        container.setDepartureTime(departureTime);
+        return container;
+    }
+}
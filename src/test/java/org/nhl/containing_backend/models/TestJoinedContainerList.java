@@ -0,0 +1,75 @@
+package org.nhl.containing_backend.models;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for joining container lists without copying them.
+ */
+public class TestJoinedContainerList {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testGetSkipsEmptyParts() {
+        Container a = container(1, 100);
+        Container b = container(2, 200);
+        Container c = container(3, 300);
+        JoinedContainerList joined = join(Collections.<Container>emptyList(), Arrays.asList(a, b),
+                Collections.<Container>emptyList(), Collections.<Container>emptyList(), Arrays.asList(c));
+
+        assertEquals(3, joined.size());
+        assertEquals(Arrays.asList(a, b, c), joined);
+        assertEquals(300, joined.arrivalTime(2));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(join().isEmpty());
+    }
+
+    @Test
+    public void testGetOutOfBounds() {
+        thrown.expect(IndexOutOfBoundsException.class);
+        join(Arrays.asList(container(1, 100)), Collections.<Container>emptyList()).get(1);
+    }
+
+    @SafeVarargs
+    private static JoinedContainerList join(List<Container>... parts) {
+        return new JoinedContainerList(new ArrayList<>(Arrays.asList(parts)));
+    }
+
+    private static Container container(int number, long arrivalTime) {
+        Container container = new Container();
+        container.setNumber(number);
+        container.setArrivalTime(arrivalTime);
+        return container;
+    }
+}
@@ -0,0 +1,92 @@
+package org.nhl.containing_backend.routing;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the reservation-based router.
+ */
+public class TestReservationRouter {
+    private ReservationRouter router;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        // Two ways from S to T, the one via A slightly shorter than the one via B.
+        WaypointGraph graph = new WaypointGraph();
+        graph.connect("S", "A", 10);
+        graph.connect("A", "T", 10);
+        graph.connect("S", "B", 10);
+        graph.connect("B", "T", 12);
+        // One graph unit per second and one second slots.
+        router = new ReservationRouter(new CompactGraph(graph), 1, 1000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testConcurrentRoutesAvoidEachOther() {
+        assertEquals("S, A, T", router.route(1, "S", "T", 0).toString());
+        assertEquals("S, B, T", router.route(2, "S", "T", 0).toString());
+        // Once the first AGV has passed, the shortest route is free again.
+        assertEquals("S, A, T", router.route(3, "S", "T", 30000).toString());
+    }
+
+    @Test
+    public void testRerouteReplacesReservations() {
+        router.route(1, "S", "T", 0);
+        router.route(1, "S", "T", 0);
+        // Twenty slots on the roads and the arrivals at A and T.
+        assertEquals(22, router.reservationCount());
+        router.release(1);
+        assertEquals(0, router.reservationCount());
+    }
+
+    @Test
+    public void testOncomingRoutesDoNotShareARoad() {
+        WaypointGraph graph = new WaypointGraph();
+        graph.connectBoth("S", "A", 10);
+        graph.connectBoth("A", "T", 10);
+        graph.connectBoth("S", "B", 10);
+        graph.connectBoth("B", "T", 12);
+        router = new ReservationRouter(new CompactGraph(graph), 1, 1000);
+
+        // The first AGV drives A-T in slots 10 to 19; the second would drive T-A in slots 5 to 14.
+        assertEquals("S, A, T", router.route(1, "S", "T", 0).toString());
+        assertEquals("T, B, S", router.route(2, "T", "S", 5000).toString());
+        // Once the road is clear again the shortest route is free.
+        assertEquals("T, A, S", router.route(3, "T", "S", 20000).toString());
+    }
+
+    @Test
+    public void testFallbackToStaticRoute() {
+        router.route(1, "S", "T", 0);
+        router.route(2, "S", "T", 0);
+        // Both ways are taken at this time; the third AGV gets the static shortest route.
+        Route route = router.route(3, "S", "T", 0);
+        assertEquals("S, A, T", route.toString());
+        assertEquals(20d, route.getCost(), 0.0001);
+    }
+
+    @Test
+    public void testUnknownWaypoint() {
+        assertSame(Route.NONE, router.route(1, "S", "'P", 0));
+    }
+}
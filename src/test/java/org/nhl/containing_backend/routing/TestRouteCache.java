@@ -0,0 +1,74 @@
+package org.nhl.containing_backend.routing;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the bounded route cache.
+ */
+public class TestRouteCache {
+    private WaypointGraph graph;
+    private RouteCache cache;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        graph = WaypointGraph.terminal();
+        cache = new RouteCache(graph, 2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testFindCountsHitsAndMisses() {
+        Route route = cache.find("P", "I");
+        assertEquals("P, E, I", route.toString());
+        assertSame(route, cache.find("P", "I"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testFindEvictsLeastRecentlyUsed() {
+        Route first = cache.find("P", "I");
+        cache.find("G", "K");
+        cache.find("P", "I");
+        cache.find("N", "Q");
+        assertEquals(2, cache.size());
+        // G-K was used least recently, so it was evicted.
+        assertSame(first, cache.find("P", "I"));
+        cache.find("G", "K");
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testFindInvalidatesOnEdit() {
+        assertEquals("P, E, I", cache.find("P", "I").toString());
+        graph.connect("P", "I", 10d);
+        assertEquals("P, I", cache.find("P", "I").toString());
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testFindUnknownWaypoint() {
+        assertSame(Route.NONE, cache.find("G", "'P"));
+    }
+}
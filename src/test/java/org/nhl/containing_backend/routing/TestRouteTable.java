@@ -0,0 +1,88 @@
+package org.nhl.containing_backend.routing;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the all-pairs route table.
+ */
+public class TestRouteTable {
+    private RouteTable routeTable;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        routeTable = new RouteTable(WaypointGraph.terminal());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testPath() {
+        assertEquals("P, E, I", routeTable.path("P", "I"));
+        assertEquals("G, H, K", routeTable.path("G", "K"));
+        assertEquals("N, F, Q", routeTable.path("N", "Q"));
+        assertEquals("P", routeTable.path("P", "P"));
+    }
+
+    @Test
+    public void testFind() {
+        Route route = routeTable.find("P", "I");
+        assertEquals(3, route.length());
+        assertEquals("P", route.name(0));
+        assertEquals("I", route.name(2));
+        assertEquals(190d, route.getCost(), 0.0001);
+        assertSame(Route.NONE, routeTable.find("G", "'P"));
+        assertTrue(Route.NONE.isEmpty());
+    }
+
+    @Test
+    public void testPathUnknownWaypoint() {
+        assertEquals("", routeTable.path("", "I"));
+        assertEquals("", routeTable.path("G", "'P"));
+    }
+
+    @Test
+    public void testRouteMatchesCost() {
+        WaypointGraph graph = WaypointGraph.terminal();
+        for (int from = 0; from < graph.size(); from++) {
+            for (int to = 0; to < graph.size(); to++) {
+                int[] route = routeTable.route(from, to);
+                double cost = 0;
+                for (int i = 1; i < route.length; i++) {
+                    cost += edgeCost(graph, route[i - 1], route[i]);
+                }
+                assertEquals(routeTable.cost(from, to), cost, 0.0001);
+            }
+        }
+        // Unreachable waypoints have no route.
+        graph.addWaypoint("Z");
+        assertNull(new RouteTable(graph).route(0, graph.indexOf("Z")));
+    }
+
+    private static double edgeCost(WaypointGraph graph, int from, int to) {
+        for (WaypointGraph.Edge edge : graph.getEdges()) {
+            if (edge.getFrom() == from && edge.getTo() == to) {
+                return edge.getCost();
+            }
+        }
+        throw new AssertionError("No edge between " + from + " and " + to);
+    }
+}
@@ -0,0 +1,94 @@
+package org.nhl.containing_backend.routing;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the reusable shortest path search.
+ */
+public class TestShortestPathSearch {
+    private WaypointGraph graph;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        // A random graph that is big enough to exercise the heap.
+        graph = new WaypointGraph();
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            graph.addWaypoint("W" + i);
+        }
+        for (int i = 0; i < 1500; i++) {
+            graph.connect("W" + random.nextInt(300), "W" + random.nextInt(300), 1 + random.nextInt(100));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testSearchMatchesBellmanFord() {
+        CompactGraph compact = new CompactGraph(graph);
+        ShortestPathSearch search = new ShortestPathSearch(compact);
+        int[] route = new int[compact.size()];
+        // Reuse the same search for every source, so stale buffers would show up.
+        for (int source = 0; source < compact.size(); source += 7) {
+            double[] expected = bellmanFord(source);
+            for (int target = 0; target < compact.size(); target += 5) {
+                assertEquals(expected[target] != Double.POSITIVE_INFINITY, search.search(source, target));
+                assertEquals(expected[target], search.distance(target), 0.0001);
+
+                int length = search.path(target, route);
+                if (expected[target] == Double.POSITIVE_INFINITY) {
+                    assertEquals(-1, length);
+                } else {
+                    assertEquals(source, route[0]);
+                    assertEquals(target, route[length - 1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSearchUnreachable() {
+        graph.addWaypoint("Island");
+        CompactGraph compact = new CompactGraph(graph);
+        ShortestPathSearch search = new ShortestPathSearch(compact);
+        assertFalse(search.search(0, compact.indexOf("Island")));
+        assertEquals(Double.POSITIVE_INFINITY, search.distance(compact.indexOf("Island")), 0);
+        assertEquals(-1, search.previous(compact.indexOf("Island")));
+    }
+
+    private double[] bellmanFord(int source) {
+        double[] distances = new double[graph.size()];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[source] = 0;
+        for (int i = 0; i < graph.size(); i++) {
+            for (WaypointGraph.Edge edge : graph.getEdges()) {
+                if (distances[edge.getFrom()] + edge.getCost() < distances[edge.getTo()]) {
+                    distances[edge.getTo()] = distances[edge.getFrom()] + edge.getCost();
+                }
+            }
+        }
+        return distances;
+    }
+}
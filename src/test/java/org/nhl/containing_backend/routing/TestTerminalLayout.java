@@ -0,0 +1,101 @@
+package org.nhl.containing_backend.routing;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for reading terminal layouts.
+ */
+public class TestTerminalLayout {
+    private TerminalLayout layout;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        layout = TerminalLayout.terminal();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    private static TerminalLayout read(String xml) throws XMLStreamException {
+        return TerminalLayout.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testTerminal() {
+        assertEquals(17, layout.getGraph().size());
+        assertEquals(38, layout.getGraph().getEdges().size());
+        assertEquals("G", layout.transportWaypoint("trein"));
+        assertEquals("I", layout.craneWaypoint("TrainCrane"));
+        assertEquals("", layout.craneWaypoint("StorageCrane"));
+    }
+
+    @Test
+    public void testParkingWaypoint() {
+        // Both ends of the parking rows of Model.
+        assertEquals("P", layout.parkingWaypoint(-162.3f, -122f));
+        assertEquals("Q", layout.parkingWaypoint(11.5f, 113f));
+        assertEquals("N", layout.parkingWaypoint(118.9f, -122f));
+        assertEquals("O", layout.parkingWaypoint(291.7f, 113f));
+        assertEquals("M", layout.parkingWaypoint(541.3f, -122f));
+        assertEquals("L", layout.parkingWaypoint(367.7f, 113f));
+        // Nowhere near a parking platform.
+        assertEquals("", layout.parkingWaypoint(2000f, 0f));
+    }
+
+    @Test
+    public void testReadEdges() throws XMLStreamException {
+        TerminalLayout custom = read("<layout><waypoint name=\"X\"/><edge from=\"A\" to=\"B\" cost=\"3\"/>"
+                + "<parking waypoint=\"B\" x=\"0\" y=\"0\"/></layout>");
+        assertEquals(3, custom.getGraph().size());
+        assertEquals(1, custom.getGraph().getEdges().size());
+        assertEquals("B", custom.parkingWaypoint(100f, 100f));
+        assertEquals("", custom.parkingWaypoint(1000f, 1000f));
+    }
+
+    @Test
+    public void testParkingWaypointWithoutParking() throws XMLStreamException {
+        TerminalLayout custom = read("<layout><edge from=\"A\" to=\"B\" cost=\"3\"/></layout>");
+        assertEquals("", custom.parkingWaypoint(0, 0));
+    }
+
+    @Test
+    public void testParkingWaypointHugeRadius() throws XMLStreamException {
+        TerminalLayout custom = read("<layout parkingRadius=\"1e30\"><parking waypoint=\"B\" x=\"0\" y=\"0\"/>"
+                + "</layout>");
+        assertEquals("B", custom.parkingWaypoint(1e6f, 1e6f));
+    }
+
+    @Test
+    public void testReadMissingAttribute() throws XMLStreamException {
+        thrown.expect(XMLStreamException.class);
+        read("<layout><road a=\"A\" cost=\"3\"/></layout>");
+    }
+
+    @Test
+    public void testReadUnknownElement() throws XMLStreamException {
+        thrown.expect(XMLStreamException.class);
+        read("<layout><bridge/></layout>");
+    }
+}
@@ -0,0 +1,84 @@
+package org.nhl.containing_backend.simulation;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+import org.nhl.containing_backend.communication.MessageListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the in-process stand-in of the simulator.
+ */
+public class TestSimulatedClient {
+    private SimulatedClient client;
+    private List<String> received;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        client = new SimulatedClient();
+        received = new ArrayList<>();
+        client.setMessageListener(new MessageListener() {
+            @Override
+            public void messageReceived(String message) {
+                received.add(message);
+            }
+
+            @Override
+            public void ackReceived(int id) {
+            }
+
+            @Override
+            public void disconnected() {
+            }
+        });
+        client.run();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testAcksAreDeliveredAfterTheirDuration() {
+        client.advanceTo(1000);
+        client.writeMessage("<id>7</id><Crane><CraneType>x</CraneType></Crane>");
+
+        assertEquals(0, client.advanceTo(1000 + 90 * 1000 - 1));
+        assertEquals(1000 + 90 * 1000, client.nextAckTime());
+        assertEquals(1, client.advanceTo(1000 + 90 * 1000));
+        assertEquals("<Simulation><id>7</id><OK/></Simulation>", received.get(0));
+        assertEquals(Long.MAX_VALUE, client.nextAckTime());
+    }
+
+    @Test
+    public void testAcksAreDeliveredInOrderOfTime() {
+        client.setDuration("Move", 500);
+        client.writeMessage("<id>1</id><Crane></Crane>");
+        client.writeMessage("<id>2</id><Move></Move>");
+        client.writeMessage("<id>3</id><Create></Create>");
+
+        assertEquals(3, client.advanceTo(Long.MAX_VALUE / 2));
+        assertTrue(received.get(0).contains("<id>3</id>"));
+        assertTrue(received.get(1).contains("<id>2</id>"));
+        assertTrue(received.get(2).contains("<id>1</id>"));
+        assertEquals(3, client.getMessageCount());
+        assertEquals(3, client.getAckCount());
+    }
+}
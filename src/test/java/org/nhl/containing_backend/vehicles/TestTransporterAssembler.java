@@ -0,0 +1,144 @@
+package org.nhl.containing_backend.vehicles;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+import org.nhl.containing_backend.models.Container;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the distribution of containers over transporters.
+ */
+public class TestTransporterAssembler {
+    private TransporterAssembler assembler;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        assembler = new TransporterAssembler();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        assembler.shutdown();
+    }
+
+    private static Container container(String type, int x, int y, int z) {
+        Container container = new Container();
+        container.setArrivalTransportType(type);
+        container.setSpawnX(x);
+        container.setSpawnY(y);
+        container.setSpawnZ(z);
+        return container;
+    }
+
+    @Test
+    public void testAssembleGroupsOnPosition() {
+        List<Container> containers = new ArrayList<>();
+        Container first = container("trein", 3, 0, 0);
+        Container second = container("trein", 3, 0, 0);
+        containers.add(first);
+        containers.add(container("trein", 0, 0, 0));
+        containers.add(second);
+        containers.add(container("vrachtauto", 0, 0, 0));
+
+        List<Transporter> transporters = assembler.assemble(containers);
+
+        // One lorry, followed by two trains because two containers share a position.
+        assertEquals(3, transporters.size());
+        assertEquals("vrachtauto", transporters.get(0).getType());
+        assertEquals("trein", transporters.get(1).getType());
+        assertEquals("trein", transporters.get(2).getType());
+        assertEquals(2, transporters.get(1).getContainers().size());
+        assertTrue(transporters.get(1).getContainers().contains(first));
+        assertEquals(1, transporters.get(2).getContainers().size());
+        assertSame(second, transporters.get(2).getContainers().get(0));
+    }
+
+    @Test
+    public void testAssembleConcurrentlyKeepsOrder() {
+        String[] types = TransporterAssembler.TYPES;
+        List<Container> containers = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            containers.add(container(types[i % types.length], i % 7, i % 3, i % 2));
+        }
+
+        TransporterAssembler sequential = new TransporterAssembler(new ForkJoinPool(1), Integer.MAX_VALUE);
+        TransporterAssembler concurrent = new TransporterAssembler(new ForkJoinPool(4), 0);
+        List<Transporter> expected = sequential.assemble(containers);
+        List<Transporter> actual = concurrent.assemble(containers);
+        sequential.shutdown();
+        concurrent.shutdown();
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            assertEquals(expected.get(i).getContainers(), actual.get(i).getContainers());
+        }
+    }
+
+    @Test
+    public void testAssembleEmpty() {
+        assertTrue(assembler.assemble(new ArrayList<Container>()).isEmpty());
+    }
+
+    @Test
+    public void testSubmitSmallBatchIsDone() throws Exception {
+        List<Container> containers = new ArrayList<>();
+        containers.add(container("trein", 0, 0, 0));
+
+        Future<List<Transporter>> transporters = assembler.submit(containers);
+
+        assertTrue(transporters.isDone());
+        assertEquals(1, transporters.get().size());
+    }
+
+    @Test
+    public void testSubmitConcurrently() throws Exception {
+        List<Container> containers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            containers.add(container(TransporterAssembler.TYPES[i % 4], i % 5, 0, 0));
+        }
+        TransporterAssembler concurrent = new TransporterAssembler(new ForkJoinPool(4), 0);
+
+        List<Transporter> transporters = concurrent.submit(containers).get();
+        concurrent.shutdown();
+
+        assertEquals(assembler.assemble(containers).size(), transporters.size());
+    }
+
+    @Test
+    public void testSubmitReportsFailure() throws Exception {
+        List<Container> containers = new ArrayList<>();
+        containers.add(container("trein", -1, 0, 0));
+        Future<List<Transporter>> transporters = assembler.submit(containers);
+        thrown.expect(ExecutionException.class);
+        transporters.get();
+    }
+
+    @Test
+    public void testAssembleNegativePosition() {
+        List<Container> containers = new ArrayList<>();
+        containers.add(container("trein", -1, 0, 0));
+        thrown.expect(IllegalArgumentException.class);
+        assembler.assemble(containers);
+    }
+}
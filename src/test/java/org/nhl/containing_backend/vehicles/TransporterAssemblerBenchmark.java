@@ -0,0 +1,156 @@
+package org.nhl.containing_backend.vehicles;
+
+import org.nhl.containing_backend.models.Container;
+import org.nhl.containing_backend.xml.Xml;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the packed-key TransporterAssembler with the string-keyed distribution it replaced, on the batches in
+ * which the containers of xml5 arrive and on xml5 as one batch.
+ * <p/>
+ * Not a unit test; run the main method by hand.
+ */
+public class TransporterAssemblerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 50;
+
+    public static void main(String[] args) {
+        List<Container> containers = Xml.parseContainerXmlResources("/xml5.xml");
+
+        // Containers arrive in batches of equal arrival time.
+        Map<Long, List<Container>> batchesPerTime = new LinkedHashMap<>();
+        for (Container container : containers) {
+            List<Container> batch = batchesPerTime.get(container.getArrivalTime());
+            if (batch == null) {
+                batch = new ArrayList<>();
+                batchesPerTime.put(container.getArrivalTime(), batch);
+            }
+            batch.add(container);
+        }
+        List<List<Container>> batches = new ArrayList<>(batchesPerTime.values());
+        List<List<Container>> whole = new ArrayList<>();
+        whole.add(containers);
+
+        System.out.println(containers.size() + " containers in " + batches.size() + " batches");
+        run("arrival batches", batches);
+        run("single batch", whole);
+    }
+
+    private static void run(String name, List<List<Container>> batches) {
+        TransporterAssembler assembler = new TransporterAssembler();
+        long legacy = 0;
+        long packed = 0;
+        int transporters = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (List<Container> batch : batches) {
+                transporters += legacyDistributeContainers(batch).size();
+            }
+            long middle = System.nanoTime();
+            for (List<Container> batch : batches) {
+                transporters -= assembler.assemble(batch).size();
+            }
+            long end = System.nanoTime();
+            if (round >= WARMUP_ROUNDS) {
+                legacy += middle - start;
+                packed += end - middle;
+            }
+        }
+        assembler.shutdown();
+        if (transporters != 0) {
+            throw new IllegalStateException("Implementations disagree on the amount of transporters");
+        }
+        System.out.printf("%s: legacy %.3f ms, packed %.3f ms, speed-up %.1fx%n", name,
+                legacy / 1e6 / ROUNDS, packed / 1e6 / ROUNDS, (double) legacy / packed);
+    }
+
+    /**
+     * The string-keyed distribution as it was in Controller before TransporterAssembler.
+     */
+    private static List<Transporter> legacyDistributeContainers(List<Container> containers) {
+        String[] types = new String[]{"vrachtauto", "trein", "binnenschip", "zeeschip"};
+        List<List<Container>> listOfLists = new ArrayList<>();
+        for (int i = 0; i < types.length; i++) {
+            listOfLists.add(new ArrayList<Container>());
+        }
+        for (Container container : containers) {
+            for (int i = 0; i < types.length; i++) {
+                if (container.getArrivalTransportType().equals(types[i])) {
+                    listOfLists.get(i).add(container);
+                    break;
+                }
+            }
+        }
+
+        List<Transporter> result = new ArrayList<>();
+        int counter = 0;
+        for (List<Container> containers_ : listOfLists) {
+            String type = types[counter];
+            if (containers_.isEmpty()) {
+                counter++;
+                continue;
+            }
+
+            Map<String, List<Container>> dict = new HashMap<>();
+            for (Container container : containers_) {
+                String point = "";
+                point += container.getSpawnX() + ",";
+                point += container.getSpawnY() + ",";
+                point += container.getSpawnZ();
+
+                if (!dict.containsKey(point)) {
+                    List<Container> pointList = new ArrayList<>();
+                    pointList.add(container);
+                    dict.put(point, pointList);
+                } else {
+                    dict.get(point).add(container);
+                }
+            }
+
+            int amountOfTransporters = 0;
+            for (List<Container> containerList : dict.values()) {
+                if (amountOfTransporters < containerList.size()) {
+                    amountOfTransporters = containerList.size();
+                }
+            }
+
+            int limitX = 1;
+            int limitY = 1;
+            int limitZ = 1;
+            for (String point : dict.keySet()) {
+                String[] coords = point.split(",");
+                limitX = Math.max(limitX, Integer.parseInt(coords[0]) + 1);
+                limitY = Math.max(limitY, Integer.parseInt(coords[1]) + 1);
+                limitZ = Math.max(limitZ, Integer.parseInt(coords[2]) + 1);
+            }
+
+            for (int i = 0; i < amountOfTransporters; i++) {
+                Transporter transporter = new Transporter(type, limitX, limitY, limitZ);
+                Iterator<Map.Entry<String, List<Container>>> iterator = dict.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, List<Container>> pair = iterator.next();
+                    Point point = new Point(Integer.parseInt(pair.getKey().split(",")[0]),
+                            Integer.parseInt(pair.getKey().split(",")[1]));
+                    if (pair.getValue().isEmpty()) {
+                        iterator.remove();
+                        continue;
+                    }
+                    transporter.putContainer(point, pair.getValue().remove(0));
+                }
+                if (transporter.getContainers().size() > 0) {
+                    result.add(transporter);
+                }
+            }
+            counter++;
+        }
+        return result;
+    }
+}
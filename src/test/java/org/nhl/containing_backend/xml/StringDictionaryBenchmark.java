@@ -0,0 +1,77 @@
+package org.nhl.containing_backend.xml;
+
+import org.nhl.containing_backend.models.Container;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap that the containers of xml4 and xml5 keep alive, with and without sharing their text fields
+ * through a StringDictionary.
+ * <p/>
+ * Not a unit test; run the main method by hand, preferably with a fixed heap size. For a breakdown per class, run
+ * "jmap -histo:live" on a process that holds the parsed containers.
+ */
+public class StringDictionaryBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        // A dictionary that may hold no values shares nothing.
+        long unshared = measure(0);
+        long shared = measure(1 << 16);
+        System.out.printf("unshared %.2f MB, shared %.2f MB, saved %.2f MB%n",
+                unshared / 1e6, shared / 1e6, (unshared - shared) / 1e6);
+    }
+
+    /**
+     * @return Smallest heap growth over the rounds caused by holding the parsed containers, in bytes.
+     */
+    private static long measure(int maxSize) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            best = Math.min(best, measureRound(maxSize));
+        }
+        return best;
+    }
+
+    /**
+     * The containers are only referenced from this method, so they are garbage again once it returns.
+     */
+    private static long measureRound(int maxSize) throws Exception {
+        long before = usedHeap();
+        StringDictionary strings = new StringDictionary(maxSize);
+        List<Container> containers = new ArrayList<>();
+        containers.addAll(read(strings, "/xml4.xml"));
+        containers.addAll(read(strings, "/xml5.xml"));
+        long after = usedHeap();
+        if (containers.isEmpty()) {
+            throw new IllegalStateException("No containers parsed");
+        }
+        return after - before;
+    }
+
+    private static List<Container> read(StringDictionary strings, String resource) throws Exception {
+        try (InputStream in = StringDictionaryBenchmark.class.getResourceAsStream(resource)) {
+            return new ContainerXmlReader(strings).read(in);
+        }
+    }
+
+    /**
+     * Collects garbage until the used heap stops shrinking; a single collection does not always free everything.
+     */
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        while (true) {
+            System.gc();
+            Thread.sleep(100);
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used) {
+                return used;
+            }
+            used = now;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.nhl.containing_backend.xml;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+import org.nhl.containing_backend.models.ArrivalTimes;
+import org.nhl.containing_backend.models.Container;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the binary snapshot cache of parsed container files.
+ */
+public class TestContainerCache {
+    private File directory;
+    private ContainerCache cache;
+    private byte[] xml;
+    private byte[] hash;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        directory = new File(System.getProperty("java.io.tmpdir"), "TestContainerCache" + System.nanoTime());
+        cache = new ContainerCache(directory);
+        xml = readResource("/xml3.xml");
+        hash = ContainerCache.hash(xml);
+    }
+
+    @Test
+    public void testLoadWithoutSnapshot() {
+        assertNull(cache.load(hash));
+    }
+
+    @Test
+    public void testStoreAndLoad() {
+        List<Container> expected = Xml.parseContainerXml(new ByteArrayInputStream(xml));
+        cache.store(hash, expected);
+
+        List<Container> result = cache.load(hash);
+
+        assertEquals(expected.size(), result.size());
+        float delta = 0.0001f;
+        for (int i = 0; i < expected.size(); i++) {
+            Container a = expected.get(i);
+            Container b = result.get(i);
+            assertEquals(a.getNumber(), b.getNumber());
+            assertEquals(a.getArrivalDay(), b.getArrivalDay());
+            assertEquals(a.getArrivalSpanStart(), b.getArrivalSpanStart());
+            assertEquals(a.getArrivalTime(), b.getArrivalTime());
+            assertEquals(a.getArrivalTime(), ((ArrivalTimes) result).arrivalTime(i));
+            assertEquals(a.getDepartureTime(), b.getDepartureTime());
+            assertEquals(a.getArrivalTransportType(), b.getArrivalTransportType());
+            assertEquals(a.getSpawnX(), b.getSpawnX());
+            assertEquals(a.getSpawnY(), b.getSpawnY());
+            assertEquals(a.getSpawnZ(), b.getSpawnZ());
+            assertEquals(a.getOwner(), b.getOwner());
+            assertEquals(a.getDepartureYear(), b.getDepartureYear());
+            assertEquals(a.getDepartureCompany(), b.getDepartureCompany());
+            assertEquals(a.getIso(), b.getIso());
+            assertEquals(a.getWeight(), b.getWeight(), delta);
+            assertEquals(a.getHeight(), b.getHeight(), delta);
+        }
+        assertSame(result.get(0), result.get(0));
+    }
+
+    @Test
+    public void testHashDependsOnTimeZone() {
+        TimeZone zone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("Europe/Amsterdam"));
+            byte[] amsterdam = ContainerCache.hash(xml);
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+            byte[] newYork = ContainerCache.hash(xml);
+
+            assertFalse(Arrays.equals(amsterdam, newYork));
+        } finally {
+            TimeZone.setDefault(zone);
+        }
+    }
+
+    @Test
+    public void testLoadCorruptSnapshot() throws Exception {
+        cache.store(hash, Xml.parseContainerXml(new ByteArrayInputStream(xml)));
+        File file = directory.listFiles()[0];
+        long length = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xFF);
+        }
+        assertEquals(length, file.length());
+        assertNull(cache.load(hash));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        try (InputStream in = TestContainerCache.class.getResourceAsStream(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.nhl.containing_backend.xml;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for splitting recordsets at record boundaries.
+ */
+public class TestRecordSplitter {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        // Code executed before the first test method
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        // Code executed after the last test method
+    }
+
+    @Before
+    public void setUp() throws Exception {
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // Code executed after each test method
+    }
+
+    @Test
+    public void testRecordOffsets() {
+        ByteBuffer xml = buffer("<recordset><record id=\"1\"></record><records/><record>\n</record><record/>"
+                + "</recordset>");
+        assertArrayEquals(new int[]{11, 45, 63}, RecordSplitter.recordOffsets(xml));
+    }
+
+    @Test
+    public void testRecordOffsetsKeepsBufferPosition() {
+        ByteBuffer xml = buffer("<recordset><record/><record/></recordset>");
+        xml.position(5);
+        RecordSplitter.recordOffsets(xml);
+        assertEquals(5, xml.position());
+    }
+
+    @Test
+    public void testSplitAtRecordBoundaries() {
+        String xml = recordset(100);
+        ByteBuffer buffer = buffer(xml);
+        int[] records = RecordSplitter.recordOffsets(buffer);
+
+        int[] boundaries = RecordSplitter.split(buffer, 1, 4);
+
+        assertEquals(5, boundaries.length);
+        assertEquals(records[0], boundaries[0]);
+        assertEquals(xml.lastIndexOf("</recordset>"), boundaries[boundaries.length - 1]);
+        for (int i = 1; i < boundaries.length - 1; i++) {
+            assertTrue(boundaries[i] > boundaries[i - 1]);
+            assertTrue(xml.startsWith("<record>", boundaries[i]));
+        }
+    }
+
+    @Test
+    public void testSplitRespectsMinimumChunkSize() {
+        ByteBuffer buffer = buffer(recordset(100));
+        // The whole document is smaller than a single chunk.
+        assertEquals(2, RecordSplitter.split(buffer, 1 << 20, 16).length);
+    }
+
+    @Test
+    public void testSplitSingleRecord() {
+        assertNull(RecordSplitter.split(buffer(recordset(1)), 1, 4));
+    }
+
+    @Test
+    public void testSplitEmpty() {
+        assertNull(RecordSplitter.split(buffer(""), 1, 4));
+    }
+
+    @Test
+    public void testSplitTruncatedDocument() {
+        // The last record is never closed.
+        assertNull(RecordSplitter.split(buffer("<recordset><record>1</record><record>2"), 1, 4));
+    }
+
+    @Test
+    public void testChunkStream() throws IOException {
+        String xml = recordset(3);
+        ByteBuffer buffer = buffer(xml);
+        int[] records = RecordSplitter.recordOffsets(buffer);
+
+        InputStream in = RecordSplitter.chunkStream(buffer, records[1], records[2]);
+
+        assertEquals("<recordset><record><id>1</id></record></recordset>", read(in));
+    }
+
+    private static String recordset(int records) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<recordset>\n");
+        for (int i = 0; i < records; i++) {
+            xml.append("<record><id>").append(i).append("</id></record>");
+        }
+        return xml.append("\n</recordset>\n").toString();
+    }
+
+    private static ByteBuffer buffer(String xml) {
+        return ByteBuffer.wrap(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4];
+        int read;
+        while ((read = in.read(buffer, 0, buffer.length)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -4,6 +4,11 @@ import org.junit.*;
 import org.junit.rules.ExpectedException;
 import org.nhl.containing_backend.models.Container;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -69,6 +74,18 @@ public class TestXml {
         assertEquals("1496-1", container.getIso());
     }
 
+    @Test
+    public void testParseContainerXmlUnrecognisedElement() {
+        String xml = "<recordset><record id=\"id0\"><kleur>rood</kleur></record></recordset>";
+        assertNull(Xml.parseContainerXml(new ByteArrayInputStream(xml.getBytes())));
+    }
+
+    @Test
+    public void testParseContainerXmlTextInStructuralElement() {
+        String xml = "<recordset><record id=\"id0\">los<eigenaar><naam>Maersk</naam></eigenaar></record></recordset>";
+        assertNull(Xml.parseContainerXml(new ByteArrayInputStream(xml.getBytes())));
+    }
+
     @Test
     public void testParseContainerXmlAllFiles() {
         List<Container> containers;
@@ -81,6 +98,63 @@ public class TestXml {
         containers.addAll(Xml.parseContainerXml(TestXml.class.getResourceAsStream("/xml7.xml")));
     }
 
+    @Test
+    public void testParseContainerXmlResourcesKeepsOrder() {
+        List<Container> expected = Xml.parseContainerXml(TestXml.class.getResourceAsStream("/xml1.xml"));
+        expected.addAll(Xml.parseContainerXml(TestXml.class.getResourceAsStream("/xml2.xml")));
+        expected.addAll(Xml.parseContainerXml(TestXml.class.getResourceAsStream("/xml3.xml")));
+
+        List<Container> result = Xml.parseContainerXmlResources("/xml1.xml", "/doesnotexist.xml", "/xml2.xml",
+                "/xml3.xml");
+
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getNumber(), result.get(i).getNumber());
+        }
+    }
+
+    @Test
+    public void testParseContainerXmlFileInChunks() throws Exception {
+        List<Container> expected = Xml.parseContainerXml(TestXml.class.getResourceAsStream("/xml5.xml"));
+
+        List<Container> result = Xml.parseContainerXml(new File(TestXml.class.getResource("/xml5.xml").toURI()));
+
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getNumber(), result.get(i).getNumber());
+            assertEquals(expected.get(i).getOwner(), result.get(i).getOwner());
+        }
+    }
+
+    @Test
+    public void testParseContainerXmlFileWithBrokenChunk() throws Exception {
+        byte[] xml = Files.readAllBytes(new File(TestXml.class.getResource("/xml5.xml").toURI()).toPath());
+        String text = new String(xml, StandardCharsets.UTF_8);
+        // Stray text in a record near the end, so only one of the chunks fails.
+        int record = text.indexOf("<record", text.length() * 3 / 4);
+        int inside = text.indexOf('>', record) + 1;
+        String broken = text.substring(0, inside) + "kapot" + text.substring(inside);
+        assertTrue(RecordSplitter.split(ByteBuffer.wrap(xml), ParseChunkTask.MIN_CHUNK_SIZE, 16).length > 2);
+
+        File file = File.createTempFile("TestXml", ".xml");
+        try {
+            Files.write(file.toPath(), broken.getBytes(StandardCharsets.UTF_8));
+            assertNull(Xml.parseContainerXml(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParseContainerXmlSharesStrings() {
+        List<Container> containers = Xml.parseContainerXml(TestXml.class.getResourceAsStream("/xml1.xml"));
+        List<Container> others = Xml.parseContainerXml(TestXml.class.getResourceAsStream("/xml1.xml"));
+
+        assertNotSame(containers.get(0), others.get(0));
+        assertSame(containers.get(0).getOwner(), others.get(0).getOwner());
+        assertSame(containers.get(0).getArrivalTransportType(), others.get(0).getArrivalTransportType());
+    }
+
     @After
     public void tearDown() throws Exception {
         // Code executed after each test